@@ -0,0 +1,65 @@
+package com.jvnyor.demorestclient.controllers.exceptions;
+
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatUnknownErrorException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class ControllerExceptionHandlerBenchmark {
+
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new BenchmarkController())
+                .setControllerAdvice(new ControllerExceptionHandler())
+                .build();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse success() throws Exception {
+        return mockMvc.perform(get("/api/cats/{id}", "1")).andReturn().getResponse();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse notFound() throws Exception {
+        return mockMvc.perform(get("/api/cats/{id}", "404")).andReturn().getResponse();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse unknownError() throws Exception {
+        return mockMvc.perform(get("/api/cats/{id}", "500")).andReturn().getResponse();
+    }
+
+    @RestController
+    static class BenchmarkController {
+
+        private final CatResponseDTO catResponseDTO = new CatResponseDTO("1", "Smith", "Black", 6.0);
+
+        @GetMapping("/api/cats/{id}")
+        ResponseEntity<CatResponseDTO> getCat(@PathVariable String id) {
+            return switch (id) {
+                case "404" -> throw new CatNotFoundException();
+                case "500" -> throw new CatUnknownErrorException();
+                default -> ResponseEntity.ok(catResponseDTO);
+            };
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.jvnyor.demorestclient.dtos;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatJsonBenchmark {
+
+    private static final TypeReference<List<CatResponseDTO>> CAT_LIST = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CatRequestDTO catRequestDTO;
+
+    private CatResponseDTO catResponseDTO;
+
+    private byte[] catResponseDTOJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        catRequestDTO = new CatRequestDTO("Smith", "Black", 6.0);
+        catResponseDTO = new CatResponseDTO("60f1b3b3b3b3b3b3b3b3b3b3", "Smith", "Black", 6.0);
+        catResponseDTOJson = objectMapper.writeValueAsBytes(catResponseDTO);
+    }
+
+    @Benchmark
+    public byte[] serializeCatRequestDTO() throws IOException {
+        return objectMapper.writeValueAsBytes(catRequestDTO);
+    }
+
+    @Benchmark
+    public byte[] serializeCatResponseDTO() throws IOException {
+        return objectMapper.writeValueAsBytes(catResponseDTO);
+    }
+
+    @Benchmark
+    public CatResponseDTO deserializeCatResponseDTO() throws IOException {
+        return objectMapper.readValue(catResponseDTOJson, CatResponseDTO.class);
+    }
+
+    @Benchmark
+    public byte[] serializeCatResponseDTOList(CatList catList) throws IOException {
+        return objectMapper.writeValueAsBytes(catList.catResponseDTOList);
+    }
+
+    @Benchmark
+    public List<CatResponseDTO> deserializeCatResponseDTOList(CatList catList) throws IOException {
+        return objectMapper.readValue(catList.catResponseDTOListJson, CAT_LIST);
+    }
+
+    @State(Scope.Benchmark)
+    public static class CatList {
+
+        @Param({"100", "10000"})
+        private int listSize;
+
+        private List<CatResponseDTO> catResponseDTOList;
+
+        private byte[] catResponseDTOListJson;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            catResponseDTOList = new ArrayList<>(listSize);
+            for (int i = 0; i < listSize; i++) {
+                catResponseDTOList.add(new CatResponseDTO(Integer.toHexString(i), "Smith " + i, i % 2 == 0 ? "Black" : "White", 4.0 + i % 5));
+            }
+            catResponseDTOListJson = new ObjectMapper().writeValueAsBytes(catResponseDTOList);
+        }
+    }
+}
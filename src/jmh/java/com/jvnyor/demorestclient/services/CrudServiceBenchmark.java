@@ -0,0 +1,86 @@
+package com.jvnyor.demorestclient.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.demorestclient.DemoRestClientSpringBootApplication;
+import com.jvnyor.demorestclient.dtos.CatRequestDTO;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import com.jvnyor.demorestclient.stub.CatsStubServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dlogback.configurationFile=logback-benchmark.xml", "-Dsun.net.httpserver.nodelay=true"})
+@Threads(8)
+public class CrudServiceBenchmark {
+
+    @Param({"apache", "jdk"})
+    private String httpClient;
+
+    private CatsStubServer server;
+
+    private ConfigurableApplicationContext context;
+
+    private CrudService crudService;
+
+    private CatRequestDTO catRequestDTO;
+
+    private String id;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // No simulated latency or errors: the benchmark measures the client side of a call
+        server = new CatsStubServer(0, Duration.ZERO, Duration.ZERO, 0.0, 0.0, new ObjectMapper());
+        id = server.seed(100).getFirst();
+        context = new SpringApplicationBuilder(DemoRestClientSpringBootApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--crud-crud.base.url=" + server.baseUrl(),
+                        "--crud-crud.http.client=" + httpClient,
+                        "--crud-crud.single-flight.enabled=false",
+                        "--crud-crud.logging.mode=off",
+                        "--logging.config=classpath:logback-benchmark.xml");
+        crudService = context.getBean(CrudService.class);
+        catRequestDTO = new CatRequestDTO("Smith", "Black", 6.0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Benchmark
+    public CatResponseDTO getCat() {
+        return crudService.getCat(id);
+    }
+
+    @Benchmark
+    public CatResponseDTO createCat() {
+        return crudService.createCat(catRequestDTO);
+    }
+
+    @Benchmark
+    public List<CatResponseDTO> listCats() {
+        return crudService.listCats();
+    }
+
+    @Benchmark
+    public byte[] getCatRaw() {
+        return crudService.getCatRaw(id);
+    }
+
+    @Benchmark
+    public byte[] listCatsRaw() {
+        return crudService.listCatsRaw();
+    }
+}
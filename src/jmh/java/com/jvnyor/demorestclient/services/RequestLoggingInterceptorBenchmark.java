@@ -0,0 +1,56 @@
+package com.jvnyor.demorestclient.services;
+
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@Threads(4)
+public class RequestLoggingInterceptorBenchmark {
+
+    @Param({"full", "sampled", "sampled-with-body"})
+    private String mode;
+
+    private ClientHttpRequestInterceptor interceptor;
+
+    private MockClientHttpRequest request;
+
+    private byte[] body;
+
+    private ClientHttpRequestExecution execution;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var logger = LoggerFactory.getLogger(CrudService.class);
+        interceptor = switch (mode) {
+            case "full" -> new FullRequestLoggingInterceptor(logger);
+            case "sampled" -> new SampledRequestLoggingInterceptor(logger, 0.01, 0);
+            case "sampled-with-body" -> new SampledRequestLoggingInterceptor(logger, 0.01, 256);
+            default -> throw new IllegalArgumentException(mode);
+        };
+        request = new MockClientHttpRequest(HttpMethod.PUT, URI.create("http://localhost:8080/api/cats/60f1b3b3b3b3b3b3b3b3b3b3"));
+        body = "{\"name\":\"Smith\",\"color\":\"Black\",\"weight\":6.0}".getBytes(StandardCharsets.UTF_8);
+        var response = new MockClientHttpResponse(new byte[0], 204);
+        execution = (executedRequest, executedBody) -> response;
+    }
+
+    @Benchmark
+    public ClientHttpResponse intercept() throws IOException {
+        return interceptor.intercept(request, body, execution);
+    }
+}
@@ -0,0 +1,215 @@
+package com.jvnyor.demorestclient.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+@Configuration(proxyBeanMethods = false)
+public class HttpClientConfig {
+
+    @Bean
+    RestClientCustomizer upstreamRequestFactoryCustomizer(ClientHttpRequestFactory upstreamRequestFactory) {
+        return restClientBuilder -> restClientBuilder.requestFactory(upstreamRequestFactory);
+    }
+
+    /**
+     * Connector of the {@code WebClient} behind {@code AsyncCrudService}, picked up by Spring Boot's WebClient
+     * auto-configuration. Neither Reactor Netty nor the reactive httpcore5 adapter is on the class path, so it is the
+     * JDK client in both modes. With {@code apache} it speaks HTTP/1.1, one connection per call in flight, so that the
+     * concurrency limit it shares with the blocking client, capped at {@code max-connections-per-route}, bounds its
+     * connections too.
+     */
+    @Bean
+    ClientHttpConnector upstreamClientHttpConnector(
+            @Value("${crud-crud.http.client:apache}") String client,
+            @Value("${crud-crud.http.connect-timeout:2s}") Duration connectTimeout) {
+        return new JdkClientHttpConnector(HttpClient.newBuilder()
+                .version("jdk".equals(client) ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build());
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "crud-crud.http.client", havingValue = "apache", matchIfMissing = true)
+    static class ApacheHttpClientConfig {
+
+        @Bean(destroyMethod = "close")
+        PoolingHttpClientConnectionManager upstreamConnectionManager(
+                @Value("${crud-crud.http.max-connections-per-route:50}") int maxConnectionsPerRoute,
+                @Value("${crud-crud.http.max-connections-total:200}") int maxConnectionsTotal,
+                @Value("${crud-crud.http.connect-timeout:2s}") Duration connectTimeout,
+                @Value("${crud-crud.http.connection-time-to-live:5m}") Duration connectionTimeToLive) {
+            return connectionManager(maxConnectionsPerRoute, maxConnectionsTotal, connectTimeout, connectionTimeToLive);
+        }
+
+        @Bean(destroyMethod = "close")
+        CloseableHttpClient upstreamHttpClient(
+                PoolingHttpClientConnectionManager upstreamConnectionManager,
+                @Value("${crud-crud.http.read-timeout:5s}") Duration readTimeout,
+                @Value("${crud-crud.http.connection-request-timeout:1s}") Duration connectionRequestTimeout,
+                @Value("${crud-crud.http.idle-eviction:30s}") Duration idleEviction) {
+            return httpClient(upstreamConnectionManager, readTimeout, connectionRequestTimeout, idleEviction);
+        }
+
+        @Bean(destroyMethod = "close")
+        ApacheUpstreamRequestFactories upstreamRequestFactories(
+                @Value("${crud-crud.http.max-connections-per-route:50}") int maxConnectionsPerRoute,
+                @Value("${crud-crud.http.max-connections-total:200}") int maxConnectionsTotal,
+                @Value("${crud-crud.http.connect-timeout:2s}") Duration connectTimeout,
+                @Value("${crud-crud.http.connection-time-to-live:5m}") Duration connectionTimeToLive,
+                @Value("${crud-crud.http.read-timeout:5s}") Duration readTimeout,
+                @Value("${crud-crud.http.connection-request-timeout:1s}") Duration connectionRequestTimeout,
+                @Value("${crud-crud.http.idle-eviction:30s}") Duration idleEviction,
+                ObjectProvider<MeterRegistry> meterRegistry) {
+            return new ApacheUpstreamRequestFactories(endpoint -> {
+                var connectionManager = connectionManager(maxConnectionsPerRoute, maxConnectionsTotal, connectTimeout, connectionTimeToLive);
+                meterRegistry.ifAvailable(registry ->
+                        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "crud-crud-" + endpoint).bindTo(registry));
+                return httpClient(connectionManager, readTimeout, connectionRequestTimeout, idleEviction);
+            });
+        }
+
+        @Bean
+        MeterBinder upstreamConnectionPoolMetrics(PoolingHttpClientConnectionManager upstreamConnectionManager) {
+            return new PoolingHttpClientConnectionManagerMetricsBinder(upstreamConnectionManager, "crud-crud");
+        }
+
+        @Bean
+        ClientHttpRequestFactory upstreamRequestFactory(CloseableHttpClient upstreamHttpClient) {
+            return new HttpComponentsClientHttpRequestFactory(upstreamHttpClient);
+        }
+
+        private static PoolingHttpClientConnectionManager connectionManager(int maxConnectionsPerRoute, int maxConnectionsTotal,
+                                                                            Duration connectTimeout, Duration connectionTimeToLive) {
+            return PoolingHttpClientConnectionManagerBuilder.create()
+                    .setMaxConnPerRoute(maxConnectionsPerRoute)
+                    .setMaxConnTotal(maxConnectionsTotal)
+                    .setDefaultConnectionConfig(ConnectionConfig.custom()
+                            .setConnectTimeout(Timeout.of(connectTimeout))
+                            .setTimeToLive(TimeValue.of(connectionTimeToLive))
+                            .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                            .build())
+                    .build();
+        }
+
+        private static CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager, Duration readTimeout,
+                                                      Duration connectionRequestTimeout, Duration idleEviction) {
+            return HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            .setResponseTimeout(Timeout.of(readTimeout))
+                            .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                            .build())
+                    .evictExpiredConnections()
+                    .evictIdleConnections(TimeValue.of(idleEviction))
+                    .build();
+        }
+
+        /**
+         * Closing a client also closes the connection pool it owns.
+         */
+        static final class ApacheUpstreamRequestFactories implements UpstreamRequestFactories, AutoCloseable {
+
+            private final Function<String, CloseableHttpClient> httpClients;
+
+            private final List<CloseableHttpClient> created = new CopyOnWriteArrayList<>();
+
+            ApacheUpstreamRequestFactories(Function<String, CloseableHttpClient> httpClients) {
+                this.httpClients = httpClients;
+            }
+
+            @Override
+            public ClientHttpRequestFactory create(String endpoint) {
+                var httpClient = httpClients.apply(endpoint);
+                created.add(httpClient);
+                return new HttpComponentsClientHttpRequestFactory(httpClient);
+            }
+
+            @Override
+            public void close() throws IOException {
+                for (var httpClient : created) {
+                    httpClient.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * The JDK client has no per-route or total connection limit, no pool lease timeout and no connection time-to-live:
+     * with HTTP/2 it multiplexes calls over one connection per origin, so concurrency is only bounded by
+     * {@code crud-crud.upstream.max-concurrent-calls}. {@code idle-eviction} maps to the JVM-wide
+     * {@code jdk.httpclient.keepalive.timeout} through {@link JdkHttpClientKeepAlive}.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "crud-crud.http.client", havingValue = "jdk")
+    static class JdkHttpClientConfig {
+
+        private final Logger logger = LoggerFactory.getLogger(JdkHttpClientConfig.class);
+
+        JdkHttpClientConfig() {
+            logger.info("Upstream HTTP client is the JDK client: crud-crud.http.max-connections-per-route, max-connections-total, "
+                    + "connection-request-timeout and connection-time-to-live do not apply; idle connections are kept {}s",
+                    System.getProperty(JdkHttpClientKeepAlive.KEEP_ALIVE_PROPERTY));
+        }
+
+        @Bean
+        HttpClient upstreamHttpClient(@Value("${crud-crud.http.connect-timeout:2s}") Duration connectTimeout) {
+            return httpClient(connectTimeout);
+        }
+
+        @Bean
+        ClientHttpRequestFactory upstreamRequestFactory(
+                HttpClient upstreamHttpClient,
+                @Value("${crud-crud.http.read-timeout:5s}") Duration readTimeout) {
+            return requestFactory(upstreamHttpClient, readTimeout);
+        }
+
+        @Bean
+        UpstreamRequestFactories upstreamRequestFactories(
+                @Value("${crud-crud.http.connect-timeout:2s}") Duration connectTimeout,
+                @Value("${crud-crud.http.read-timeout:5s}") Duration readTimeout) {
+            return endpoint -> requestFactory(httpClient(connectTimeout), readTimeout);
+        }
+
+        private static HttpClient httpClient(Duration connectTimeout) {
+            return HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(connectTimeout)
+                    .build();
+        }
+
+        private static ClientHttpRequestFactory requestFactory(HttpClient httpClient, Duration readTimeout) {
+            var requestFactory = new JdkClientHttpRequestFactory(httpClient);
+            requestFactory.setReadTimeout(readTimeout);
+            return requestFactory;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.jvnyor.demorestclient.configs;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.time.Duration;
+
+/**
+ * Maps {@code crud-crud.http.idle-eviction} to the JVM-wide {@code jdk.httpclient.keepalive.timeout} when the upstream
+ * client is {@code jdk}, unless that is set on the command line. The JDK client reads it once, when its connection pool
+ * class is loaded, so it is set as soon as the environment is ready, before any bean can build a JDK client. With
+ * {@code apache} the JDK clients of the process keep their defaults.
+ */
+public class JdkHttpClientKeepAlive implements EnvironmentPostProcessor {
+
+    static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (!"jdk".equals(environment.getProperty("crud-crud.http.client")) || System.getProperty(KEEP_ALIVE_PROPERTY) != null) {
+            return;
+        }
+        var idleEviction = Binder.get(environment).bind("crud-crud.http.idle-eviction", Duration.class).orElse(Duration.ofSeconds(30));
+        System.setProperty(KEEP_ALIVE_PROPERTY, Long.toString(Math.max(1, idleEviction.toSeconds())));
+    }
+}
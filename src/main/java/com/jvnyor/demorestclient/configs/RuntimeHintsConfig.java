@@ -0,0 +1,34 @@
+package com.jvnyor.demorestclient.configs;
+
+import com.jvnyor.demorestclient.controllers.exceptions.dtos.ErrorResponseDTO;
+import com.jvnyor.demorestclient.dtos.BatchItemDTO;
+import com.jvnyor.demorestclient.dtos.CatPageDTO;
+import com.jvnyor.demorestclient.dtos.CatQueryDTO;
+import com.jvnyor.demorestclient.dtos.CatRequestDTO;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reachability metadata for the AOT-processed builds ({@code -Pcds}, {@code -Pnative}). The AOT engine only infers
+ * the types of controller signatures, so the DTOs that travel through {@code RestClient}, {@code WebClient}, a bare
+ * {@code ObjectMapper} or the {@code ResponseEntity<Object>} of {@code ControllerExceptionHandler} get their Jackson
+ * binding registered here. springdoc ships hints for its own model, but not for the swagger-ui webjar it serves.
+ */
+@Configuration(proxyBeanMethods = false)
+@RegisterReflectionForBinding({CatRequestDTO.class, CatResponseDTO.class, CatPageDTO.class, CatQueryDTO.class,
+        BatchItemDTO.class, ErrorResponseDTO.class})
+@ImportRuntimeHints(RuntimeHintsConfig.SwaggerUiHints.class)
+public class RuntimeHintsConfig {
+
+    static class SwaggerUiHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources().registerPattern("META-INF/resources/webjars/swagger-ui/**");
+        }
+    }
+}
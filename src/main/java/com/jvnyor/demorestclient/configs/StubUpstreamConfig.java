@@ -0,0 +1,33 @@
+package com.jvnyor.demorestclient.configs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.demorestclient.stub.CatsStubServer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Starts the in-memory cats API when the {@code stub} profile is active; {@code application-stub.properties} points
+ * {@code crud-crud.base.url} at it.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("stub")
+public class StubUpstreamConfig {
+
+    @Bean(destroyMethod = "close")
+    CatsStubServer catsStubServer(@Value("${crud-crud.stub.port:8089}") int port,
+                                  @Value("${crud-crud.stub.latency-median:20ms}") Duration latencyMedian,
+                                  @Value("${crud-crud.stub.latency-p99:200ms}") Duration latencyP99,
+                                  @Value("${crud-crud.stub.error-rate:0.0}") double errorRate,
+                                  @Value("${crud-crud.stub.not-found-rate:0.0}") double notFoundRate,
+                                  @Value("${crud-crud.stub.seed:1000}") int seed,
+                                  ObjectMapper objectMapper) throws IOException {
+        var server = new CatsStubServer(port, latencyMedian, latencyP99, errorRate, notFoundRate, objectMapper);
+        server.seed(seed);
+        return server;
+    }
+}
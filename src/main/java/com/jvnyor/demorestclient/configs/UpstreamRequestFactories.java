@@ -0,0 +1,14 @@
+package com.jvnyor.demorestclient.configs;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+/**
+ * Creates a request factory with its own connection pool for each additional upstream endpoint, so that one slow or
+ * rate-limited endpoint cannot hold the connections the others need. The first endpoint uses the shared
+ * {@code upstreamRequestFactory}.
+ */
+@FunctionalInterface
+public interface UpstreamRequestFactories {
+
+    ClientHttpRequestFactory create(String endpoint);
+}
@@ -1,26 +1,49 @@
 package com.jvnyor.demorestclient.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.demorestclient.controllers.exceptions.CatStreamAbortedException;
+import com.jvnyor.demorestclient.dtos.BatchItemDTO;
+import com.jvnyor.demorestclient.dtos.CatQueryDTO;
 import com.jvnyor.demorestclient.dtos.CatRequestDTO;
 import com.jvnyor.demorestclient.dtos.CatResponseDTO;
-import com.jvnyor.demorestclient.services.CrudService;
+import com.jvnyor.demorestclient.services.CatBatchService;
+import com.jvnyor.demorestclient.services.CatService;
+import com.jvnyor.demorestclient.services.CatWriteBehindService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
 public class CrudController {
-    private final CrudService crudService;
+    private static final int STREAM_FLUSH_INTERVAL = 64;
 
-    public CrudController(CrudService crudService) {
-        this.crudService = crudService;
+    private final CatService catService;
+
+    private final CatBatchService catBatchService;
+
+    private final CatWriteBehindService catWriteBehindService;
+
+    private final ObjectMapper objectMapper;
+
+    public CrudController(CatService catService, CatBatchService catBatchService, CatWriteBehindService catWriteBehindService, ObjectMapper objectMapper) {
+        this.catService = catService;
+        this.catBatchService = catBatchService;
+        this.catWriteBehindService = catWriteBehindService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/cats")
     public ResponseEntity<CatResponseDTO> createCat(CatRequestDTO catRequestDTO) {
-        var catResponseDTO = crudService.createCat(catRequestDTO);
+        var catResponseDTO = catService.createCat(catRequestDTO);
         return ResponseEntity
                 .created(ServletUriComponentsBuilder
                         .fromCurrentRequest()
@@ -32,23 +55,131 @@ public class CrudController {
 
     @GetMapping("/cats/{id}")
     public ResponseEntity<CatResponseDTO> getCat(@PathVariable String id) {
-        return ResponseEntity.ok(crudService.getCat(id));
+        var cat = catService.getCatWithETag(id);
+        return ResponseEntity.ok().eTag(cat.eTag()).body(cat.body());
     }
     
     @PutMapping("/cats/{id}")
     public ResponseEntity<Void> updateCat(@PathVariable String id, CatRequestDTO catRequestDTO) {
-        crudService.updateCat(id, catRequestDTO);
+        if (catWriteBehindService.isEnabled()) {
+            catWriteBehindService.updateCat(id, catRequestDTO);
+            return ResponseEntity.accepted().build();
+        }
+        catService.updateCat(id, catRequestDTO);
         return ResponseEntity.noContent().build();
     }
 
     @DeleteMapping("/cats/{id}")
     public ResponseEntity<Void> deleteCat(@PathVariable String id) {
-        crudService.deleteCat(id);
+        catService.deleteCat(id);
         return ResponseEntity.noContent().build();
     }
     
     @GetMapping("/cats")
-    public ResponseEntity<List<CatResponseDTO>> listCats() {
-        return ResponseEntity.ok(crudService.listCats());
+    public ResponseEntity<?> listCats(CatQueryDTO catQueryDTO) {
+        if (catQueryDTO.isEmpty()) {
+            var cats = catService.listCatsWithETag();
+            return ResponseEntity.ok().eTag(cats.eTag()).body(cats.body());
+        }
+        return ResponseEntity.ok(catService.queryCats(catQueryDTO));
+    }
+
+    @GetMapping(value = "/raw/cats/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getCatRaw(@PathVariable String id) {
+        return ResponseEntity.ok(catService.getCatRaw(id));
+    }
+
+    @GetMapping(value = "/raw/cats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> listCatsRaw() {
+        return ResponseEntity.ok(catService.listCatsRaw());
+    }
+
+    @PostMapping("/async/cats")
+    public CompletableFuture<ResponseEntity<CatResponseDTO>> createCatAsync(CatRequestDTO catRequestDTO) {
+        var location = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .path("/{id}");
+        return catService.createCatAsync(catRequestDTO)
+                .thenApply(catResponseDTO -> ResponseEntity
+                        .created(location
+                                .buildAndExpand(catResponseDTO._id())
+                                .toUri())
+                        .body(catResponseDTO));
+    }
+
+    @GetMapping("/async/cats/{id}")
+    public CompletableFuture<ResponseEntity<CatResponseDTO>> getCatAsync(@PathVariable String id) {
+        return catService.getCatAsync(id).thenApply(ResponseEntity::ok);
+    }
+
+    @PutMapping("/async/cats/{id}")
+    public CompletableFuture<ResponseEntity<Void>> updateCatAsync(@PathVariable String id, CatRequestDTO catRequestDTO) {
+        return catService.updateCatAsync(id, catRequestDTO).thenApply(ignored -> ResponseEntity.noContent().build());
+    }
+
+    @DeleteMapping("/async/cats/{id}")
+    public CompletableFuture<ResponseEntity<Void>> deleteCatAsync(@PathVariable String id) {
+        return catService.deleteCatAsync(id).thenApply(ignored -> ResponseEntity.noContent().build());
+    }
+
+    @GetMapping("/async/cats")
+    public CompletableFuture<ResponseEntity<List<CatResponseDTO>>> listCatsAsync() {
+        return catService.listCatsAsync().thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/cats/batch")
+    public ResponseEntity<List<BatchItemDTO<CatResponseDTO>>> getCats(@RequestParam List<String> ids) {
+        return ResponseEntity.ok(catBatchService.getCats(ids));
+    }
+
+    @PostMapping("/cats/batch")
+    public ResponseEntity<List<BatchItemDTO<CatResponseDTO>>> createCats(@RequestBody List<CatRequestDTO> catRequestDTOs) {
+        return ResponseEntity.ok(catBatchService.createCats(catRequestDTOs));
+    }
+
+    @DeleteMapping("/cats/batch")
+    public ResponseEntity<List<BatchItemDTO<Void>>> deleteCats(@RequestParam List<String> ids) {
+        return ResponseEntity.ok(catBatchService.deleteCats(ids));
+    }
+
+    @GetMapping("/cats/stream")
+    public ResponseEntity<StreamingResponseBody> streamCats(@RequestParam(defaultValue = "json") String format) {
+        var ndjson = "ndjson".equalsIgnoreCase(format);
+        StreamingResponseBody body = outputStream -> {
+            // Only closed once every cat is written: on failure the closing bracket would make a cut-short array look whole
+            var generator = objectMapper.createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            if (ndjson) {
+                generator.setRootValueSeparator(null);
+            } else {
+                generator.writeStartArray();
+            }
+            var written = new int[1];
+            try {
+                catService.streamCats(cat -> {
+                    try {
+                        generator.writeObject(cat);
+                        if (ndjson) {
+                            generator.writeRaw('\n');
+                        }
+                        if (written[0]++ % STREAM_FLUSH_INTERVAL == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+            } catch (RuntimeException exception) {
+                // Nothing was flushed before the first cat, so until then the failure can still become an error response
+                throw written[0] > 0 ? new CatStreamAbortedException(exception) : exception;
+            }
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+            generator.close();
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package com.jvnyor.demorestclient.controllers.exceptions;
+
+/**
+ * A cat stream that failed after part of it was sent to the client.
+ */
+public class CatStreamAbortedException extends RuntimeException {
+    public CatStreamAbortedException(Throwable cause) {
+        super("The cat stream failed after part of it was sent.", cause);
+    }
+}
@@ -1,17 +1,25 @@
 package com.jvnyor.demorestclient.controllers.exceptions;
 
 import com.jvnyor.demorestclient.controllers.exceptions.dtos.ErrorResponseDTO;
+import com.jvnyor.demorestclient.services.exceptions.CatBatchTooLargeException;
+import com.jvnyor.demorestclient.services.exceptions.CatInvalidQueryException;
 import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
 import com.jvnyor.demorestclient.services.exceptions.CatUnknownErrorException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamUnavailableException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 
 import java.time.LocalDateTime;
+import java.util.stream.Collectors;
 
 @ControllerAdvice
 public class ControllerExceptionHandler {
@@ -31,6 +39,15 @@ public class ControllerExceptionHandler {
                 );
     }
 
+    /**
+     * The status and part of the body are already on the wire, so there is no error response left to send. Rethrowing
+     * lets the servlet container abort the connection, which tells the client that the stream was cut short.
+     */
+    @ExceptionHandler(CatStreamAbortedException.class)
+    private void handleCatStreamAbortedException(CatStreamAbortedException exception) {
+        throw exception;
+    }
+
     @ExceptionHandler(CatUnknownErrorException.class)
     private ResponseEntity<Object> handleCatUnknownErrorException(CatUnknownErrorException exception, HttpServletRequest request) {
 
@@ -75,4 +92,47 @@ public class ControllerExceptionHandler {
                         LocalDateTime.now())
                 );
     }
+
+    @ExceptionHandler(CatUpstreamUnavailableException.class)
+    private ResponseEntity<Object> handleCatUpstreamUnavailableException(CatUpstreamUnavailableException exception, HttpServletRequest request) {
+
+        final var serviceUnavailable = HttpStatus.SERVICE_UNAVAILABLE;
+        final var retryAfterSeconds = Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity
+                .status(serviceUnavailable)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(new ErrorResponseDTO(
+                        exception.getMessage(),
+                        request.getRequestURI(),
+                        exception.getClass().getSimpleName(),
+                        serviceUnavailable.value(),
+                        LocalDateTime.now())
+                );
+    }
+
+    /**
+     * Also answers request parameters that cannot be bound, such as a non-numeric {@code limit}, or that are required
+     * and missing, such as the {@code ids} of a batch, which would otherwise reach the catch-all handler as a 500.
+     */
+    @ExceptionHandler({CatBatchTooLargeException.class, CatInvalidQueryException.class, MethodArgumentNotValidException.class, BindException.class,
+            MissingServletRequestParameterException.class})
+    private ResponseEntity<Object> handleBadRequestExceptions(Exception exception, HttpServletRequest request) {
+
+        final var badRequest = HttpStatus.BAD_REQUEST;
+        return ResponseEntity
+                .status(badRequest)
+                .body(new ErrorResponseDTO(
+                        exception instanceof BindException bindException ? invalidParametersMessage(bindException) : exception.getMessage(),
+                        request.getRequestURI(),
+                        exception.getClass().getSimpleName(),
+                        badRequest.value(),
+                        LocalDateTime.now())
+                );
+    }
+
+    private static String invalidParametersMessage(BindException exception) {
+        return exception.getFieldErrors().stream()
+                .map(error -> "Invalid value for " + error.getField() + ": " + error.getRejectedValue())
+                .collect(Collectors.joining("; ", "", "."));
+    }
 }
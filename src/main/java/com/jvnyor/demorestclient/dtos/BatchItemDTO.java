@@ -0,0 +1,4 @@
+package com.jvnyor.demorestclient.dtos;
+
+public record BatchItemDTO<T>(String id, int status, T body, String error) {
+}
@@ -0,0 +1,6 @@
+package com.jvnyor.demorestclient.dtos;
+
+import java.util.List;
+
+public record CatPageDTO(List<CatResponseDTO> items, String nextCursor) {
+}
@@ -0,0 +1,12 @@
+package com.jvnyor.demorestclient.dtos;
+
+/**
+ * Query parameters of {@code GET /api/cats}. {@code sort} is {@code id}, {@code name} or {@code weight}, prefixed with
+ * {@code -} for descending order; {@code cursor} is the {@code nextCursor} of the previous page.
+ */
+public record CatQueryDTO(String color, Double minWeight, Double maxWeight, String namePrefix, String sort, Integer limit, String cursor) {
+    public boolean isEmpty() {
+        return color == null && minWeight == null && maxWeight == null && namePrefix == null
+                && sort == null && limit == null && cursor == null;
+    }
+}
@@ -0,0 +1,278 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.dtos.CatRequestDTO;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatRequestRejectedException;
+import com.jvnyor.demorestclient.services.exceptions.CatUnknownErrorException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of {@link CrudService}. Calls go through the same guards, in the same order: the
+ * operation's circuit breaker for the endpoint, the shared concurrency limit and the endpoint's placement and ejection
+ * statistics, and are recorded in {@code crud.upstream.requests}. Since a reactive caller must not wait, a full
+ * concurrency limit fails fast with {@link CatUpstreamBusyException} instead of queueing.
+ */
+@Service
+public class AsyncCrudService {
+
+    private final Logger logger = LoggerFactory.getLogger(AsyncCrudService.class);
+
+    private final UpstreamEndpoints endpoints;
+
+    private final CrudService crudService;
+
+    private final List<WebClient> webClients;
+
+    private final Duration timeout;
+
+    public AsyncCrudService(@Value("${crud-crud.http.read-timeout:5s}") Duration timeout,
+                            UpstreamEndpoints endpoints,
+                            CrudService crudService,
+                            WebClient.Builder webClient) {
+        this.endpoints = endpoints;
+        this.crudService = crudService;
+        var recordingWebClient = webClient.clone().filter(AsyncCrudService::recordExchangeEvent);
+        this.webClients = endpoints.baseUrls().stream()
+                .map(baseUrl -> recordingWebClient.clone().baseUrl(baseUrl).build())
+                .toList();
+        this.timeout = timeout;
+    }
+
+    private static Mono<ClientResponse> recordExchangeEvent(ClientRequest request, ExchangeFunction next) {
+        var event = new UpstreamExchangeEvent();
+        if (!event.isEnabled()) {
+            return next.exchange(request);
+        }
+        return Mono.defer(() -> {
+            event.begin();
+            event.method = request.method().name();
+            event.uri = request.url().toString();
+            return next.exchange(request)
+                    .doOnNext(response -> event.status = response.statusCode().value())
+                    .doOnError(exception -> event.failure = exception.getClass().getSimpleName())
+                    .doFinally(signal -> event.commit());
+        });
+    }
+
+    public CompletableFuture<CatResponseDTO> createCat(CatRequestDTO catRequestDTO) {
+        var endpoint = endpoints.choose();
+        return call("create", endpoint, webClients.get(endpoint).post()
+                .uri("/cats")
+                .bodyValue(catRequestDTO)
+                .retrieve()
+                .onStatus(getHttpStatusCodeIsErrorPredicate(), this::logErrorStatusAndReturnAppropriatedException)
+                .bodyToMono(CatResponseDTO.class)
+                .timeout(timeout))
+                .map(cat -> endpoints.qualify(endpoint, cat))
+                .toFuture();
+    }
+
+    /**
+     * Takes the guards of the call when it is subscribed to, and hands them back exactly once when it ends. A call
+     * cancelled by its caller has no outcome: it leaves the breaker, the adaptive limit and the metrics untouched.
+     */
+    private <T> Mono<T> call(String operation, int endpoint, Mono<T> exchange) {
+        return Mono.defer(() -> {
+            var guards = new Guards(operation, endpoint);
+            guards.acquire();
+            return exchange
+                    .doOnSuccess(result -> guards.release(null))
+                    .doOnError(guards::release)
+                    .doOnCancel(guards::cancel);
+        });
+    }
+
+    private final class Guards {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private final String operation;
+
+        private final int endpoint;
+
+        private final CircuitBreaker circuitBreaker;
+
+        private final long start = System.nanoTime();
+
+        private boolean admitted;
+
+        private boolean permitted;
+
+        private long endpointStart;
+
+        private boolean begun;
+
+        Guards(String operation, int endpoint) {
+            this.operation = operation;
+            this.endpoint = endpoint;
+            this.circuitBreaker = crudService.circuitBreaker(operation, endpoint);
+        }
+
+        void acquire() {
+            try {
+                if (circuitBreaker != null) {
+                    circuitBreaker.acquirePermission();
+                    admitted = true;
+                }
+                crudService.bulkhead().tryAcquire();
+                permitted = true;
+                endpointStart = endpoints.begin(endpoint);
+                begun = true;
+            } catch (RuntimeException exception) {
+                release(exception);
+                throw exception;
+            }
+        }
+
+        void release(Throwable exception) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            if (begun) {
+                endpoints.end(endpoint, endpointStart, true, exception);
+            }
+            if (permitted) {
+                crudService.bulkhead().release(start, true, exception);
+            }
+            if (admitted) {
+                circuitBreaker.onResult(exception);
+            }
+            crudService.metrics().record(operation, start, exception);
+        }
+
+        void cancel() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            if (begun) {
+                endpoints.end(endpoint, endpointStart, false, null);
+            }
+            if (permitted) {
+                crudService.bulkhead().release(start, false, null);
+            }
+            if (admitted) {
+                circuitBreaker.onIgnored();
+            }
+        }
+    }
+
+    private Mono<Throwable> logErrorStatusAndReturnAppropriatedException(ClientResponse response) {
+        var status = response.statusCode();
+        if (status.is4xxClientError() && status.value() != 408 && status.value() != 429) {
+            var request = response.request();
+            logger.error("{}: The cat API rejected the cat request with status {}. Request URI: {}", request.getMethod().name(), status.value(), request.getURI());
+            return response.releaseBody().then(Mono.error(new CatRequestRejectedException()));
+        }
+        return logUnknownErrorAndReturnAppropriatedException(response);
+    }
+
+    private Mono<Throwable> logUnknownErrorAndReturnAppropriatedException(ClientResponse response) {
+        var request = response.request();
+        logger.error("{}: An unknown error occurred while processing the cat request. Request URI: {}", request.getMethod().name(), request.getURI());
+        return response.releaseBody().then(Mono.error(new CatUnknownErrorException()));
+    }
+
+    public CompletableFuture<CatResponseDTO> getCat(String id) {
+        var route = endpoints.route(id);
+        return coalesce("GET /cats/" + id, () -> call("get", route.endpoint(), webClients.get(route.endpoint()).get()
+                .uri("/cats/{id}", route.id())
+                .retrieve()
+                .onStatus(getHttpStatusCodeNotFoundPredicate(), this::logNotFoundErrorRequestAndReturnAppropriatedException)
+                .onStatus(getHttpStatusCodeIsErrorPredicate(), this::logErrorStatusAndReturnAppropriatedException)
+                .bodyToMono(CatResponseDTO.class)
+                .timeout(timeout))
+                .map(cat -> endpoints.qualify(route.endpoint(), cat))
+                .toFuture());
+    }
+
+    /**
+     * Joins a read of the same resource in flight, whether from this client or from {@link CrudService}: the keys are
+     * the same.
+     */
+    private <T> CompletableFuture<T> coalesce(String key, Supplier<CompletableFuture<T>> call) {
+        var singleFlight = crudService.singleFlight();
+        return singleFlight == null ? call.get() : singleFlight.executeAsync(key, call);
+    }
+
+    private Mono<Throwable> logNotFoundErrorRequestAndReturnAppropriatedException(ClientResponse response) {
+        var request = response.request();
+        logger.error("{}: Cat not found. Request URI: {}", request.getMethod().name(), request.getURI());
+        return response.releaseBody().then(Mono.error(new CatNotFoundException()));
+    }
+
+    public CompletableFuture<Void> updateCat(String id, CatRequestDTO catRequestDTO) {
+        var route = endpoints.route(id);
+        return call("update", route.endpoint(), webClients.get(route.endpoint()).put()
+                .uri("/cats/{id}", route.id())
+                .bodyValue(catRequestDTO)
+                .retrieve()
+                .onStatus(getHttpStatusCodeNotFoundPredicate(), this::logNotFoundErrorRequestAndReturnAppropriatedException)
+                .onStatus(getHttpStatusCodeIsErrorPredicate(), this::logErrorStatusAndReturnAppropriatedException)
+                .toBodilessEntity()
+                .timeout(timeout))
+                .<Void>then()
+                .toFuture();
+    }
+
+    public CompletableFuture<Void> deleteCat(String id) {
+        var route = endpoints.route(id);
+        return call("delete", route.endpoint(), webClients.get(route.endpoint()).delete()
+                .uri("/cats/{id}", route.id())
+                .retrieve()
+                .onStatus(getHttpStatusCodeNotFoundPredicate(), this::logNotFoundErrorRequestAndReturnAppropriatedException)
+                .onStatus(getHttpStatusCodeIsErrorPredicate(), this::logErrorStatusAndReturnAppropriatedException)
+                .toBodilessEntity()
+                .timeout(timeout))
+                .<Void>then()
+                .toFuture();
+    }
+
+    private static Predicate<HttpStatusCode> getHttpStatusCodeIsErrorPredicate() {
+        return HttpStatusCode::isError;
+    }
+
+    private static Predicate<HttpStatusCode> getHttpStatusCodeNotFoundPredicate() {
+        return status -> status.value() == 404;
+    }
+
+    /**
+     * Lists the cats of every endpoint, querying the endpoints concurrently.
+     */
+    public CompletableFuture<List<CatResponseDTO>> listCats() {
+        return coalesce("GET /cats", () -> Flux.range(0, webClients.size())
+                .flatMapSequential(endpoint -> call("list", endpoint, webClients.get(endpoint).get()
+                        .uri("/cats")
+                        .retrieve()
+                        .onStatus(getHttpStatusCodeIsErrorPredicate(), this::logErrorStatusAndReturnAppropriatedException)
+                        .bodyToMono(new ParameterizedTypeReference<List<CatResponseDTO>>() {
+                        })
+                        .defaultIfEmpty(List.of())
+                        .timeout(timeout))
+                        .flatMapIterable(cats -> cats)
+                        .map(cat -> endpoints.qualify(endpoint, cat)))
+                .collectList()
+                .map(Collections::unmodifiableList)
+                .toFuture());
+    }
+}
@@ -0,0 +1,107 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.dtos.BatchItemDTO;
+import com.jvnyor.demorestclient.dtos.CatRequestDTO;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import com.jvnyor.demorestclient.services.exceptions.CatBatchTooLargeException;
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+@Service
+public class CatBatchService {
+
+    private final CatService catService;
+
+    private final int maxParallelism;
+
+    private final int maxSize;
+
+    public CatBatchService(CatService catService,
+                           @Value("${crud-crud.batch.max-parallelism:16}") int maxParallelism,
+                           @Value("${crud-crud.batch.max-size:500}") int maxSize) {
+        this.catService = catService;
+        this.maxParallelism = maxParallelism;
+        this.maxSize = maxSize;
+    }
+
+    public List<BatchItemDTO<CatResponseDTO>> getCats(List<String> ids) {
+        return fanOut(ids, catService::getCat, (id, cat) -> new BatchItemDTO<>(id, HttpStatus.OK.value(), cat, null), id -> id);
+    }
+
+    public List<BatchItemDTO<CatResponseDTO>> createCats(List<CatRequestDTO> catRequestDTOs) {
+        return fanOut(catRequestDTOs, catService::createCat, (catRequestDTO, cat) -> new BatchItemDTO<>(cat._id(), HttpStatus.CREATED.value(), cat, null), catRequestDTO -> null);
+    }
+
+    public List<BatchItemDTO<Void>> deleteCats(List<String> ids) {
+        return fanOut(ids, id -> {
+            catService.deleteCat(id);
+            return null;
+        }, (id, ignored) -> new BatchItemDTO<>(id, HttpStatus.NO_CONTENT.value(), null, null), id -> id);
+    }
+
+    private <I, R, T> List<BatchItemDTO<T>> fanOut(List<I> inputs,
+                                                   Function<I, R> operation,
+                                                   ItemResultMapper<I, R, T> onSuccess,
+                                                   Function<I, String> idOf) {
+        if (inputs.size() > maxSize) {
+            throw new CatBatchTooLargeException(maxSize);
+        }
+        var permits = new Semaphore(maxParallelism);
+        var futures = new ArrayList<Future<BatchItemDTO<T>>>(inputs.size());
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var input : inputs) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return onSuccess.map(input, operation.apply(input));
+                    } catch (RuntimeException exception) {
+                        return failure(idOf.apply(input), exception);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+        var results = new ArrayList<BatchItemDTO<T>>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            results.add(resultOf(futures.get(i), idOf.apply(inputs.get(i))));
+        }
+        return results;
+    }
+
+    private static <T> BatchItemDTO<T> resultOf(Future<BatchItemDTO<T>> future, String id) {
+        try {
+            return future.get();
+        } catch (ExecutionException exception) {
+            return failure(id, exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return failure(id, exception);
+        }
+    }
+
+    private static <T> BatchItemDTO<T> failure(String id, Throwable exception) {
+        var status = switch (exception) {
+            case CatNotFoundException ignored -> HttpStatus.NOT_FOUND;
+            case CatUpstreamUnavailableException ignored -> HttpStatus.SERVICE_UNAVAILABLE;
+            default -> HttpStatus.INTERNAL_SERVER_ERROR;
+        };
+        return new BatchItemDTO<>(id, status.value(), null, exception.getMessage());
+    }
+
+    @FunctionalInterface
+    private interface ItemResultMapper<I, R, T> {
+        BatchItemDTO<T> map(I input, R result);
+    }
+}
@@ -0,0 +1,64 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Computes entity tags from cat fields rather than from serialised JSON, so a tag can be produced (and compared) without
+ * writing the body. Tags depend only on content, so every instance hands out the same tag for the same cats.
+ */
+final class CatETags {
+
+    private static final int TAG_BYTES = 16;
+
+    private CatETags() {
+    }
+
+    static String of(CatResponseDTO cat) {
+        var digest = sha256();
+        update(digest, cat);
+        return format(digest);
+    }
+
+    static String of(List<CatResponseDTO> cats) {
+        var digest = sha256();
+        for (var cat : cats) {
+            update(digest, cat);
+        }
+        return format(digest);
+    }
+
+    private static void update(MessageDigest digest, CatResponseDTO cat) {
+        update(digest, cat._id());
+        update(digest, cat.name());
+        update(digest, cat.color());
+        update(digest, cat.weight() == null ? null : cat.weight().toString());
+    }
+
+    private static void update(MessageDigest digest, String field) {
+        if (field == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        digest.update((byte) 1);
+        digest.update(field.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static String format(MessageDigest digest) {
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, TAG_BYTES) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
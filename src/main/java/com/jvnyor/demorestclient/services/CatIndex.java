@@ -0,0 +1,274 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.dtos.CatPageDTO;
+import com.jvnyor.demorestclient.dtos.CatQueryDTO;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import com.jvnyor.demorestclient.services.exceptions.CatInvalidQueryException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory secondary indexes over the cat set: every cat sorted by id, name and weight, plus the same three orderings
+ * per color (the hash index on color). A query picks the ordering it sorts by, narrows it to the requested color and to
+ * the weight range or name prefix when that is the sort field, and walks it from the cursor, so a page costs
+ * O(log n + page size) as long as the remaining filters are selective enough. Writes update the index in place.
+ */
+class CatIndex {
+
+    static final int DEFAULT_LIMIT = 50;
+
+    static final int MAX_LIMIT = 1000;
+
+    private static final Comparator<CatResponseDTO> BY_ID =
+            Comparator.comparing(CatResponseDTO::_id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    // Names equal ignoring case tie on the id, so that the probe of a name prefix sorts before every case variant of it
+    private static final Comparator<CatResponseDTO> BY_NAME =
+            Comparator.comparing(CatResponseDTO::name, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+                    .thenComparing(BY_ID);
+
+    private static final Comparator<CatResponseDTO> BY_WEIGHT =
+            Comparator.comparing(CatResponseDTO::weight, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(BY_ID);
+
+    private static final char CURSOR_SEPARATOR = '\u0000';
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, CatResponseDTO> byId = new HashMap<>();
+
+    private final Orderings all = new Orderings();
+
+    private final Map<String, Orderings> byColor = new HashMap<>();
+
+    private final long builtAtNanos;
+
+    CatIndex(List<CatResponseDTO> cats, long builtAtNanos) {
+        this.builtAtNanos = builtAtNanos;
+        for (var cat : cats) {
+            removeById(cat._id());
+            add(cat);
+        }
+    }
+
+    long builtAtNanos() {
+        return builtAtNanos;
+    }
+
+    void put(CatResponseDTO cat) {
+        lock.writeLock().lock();
+        try {
+            removeById(cat._id());
+            add(cat);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeById(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    CatPageDTO query(CatQueryDTO query) {
+        var sort = Sort.parse(query.sort());
+        var limit = query.limit() == null ? DEFAULT_LIMIT : query.limit();
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new CatInvalidQueryException("limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+        var after = query.cursor() == null ? null : decodeCursor(query.cursor());
+        lock.readLock().lock();
+        try {
+            var orderings = query.color() == null ? all : byColor.get(colorKey(query.color()));
+            if (orderings == null) {
+                return new CatPageDTO(List.of(), null);
+            }
+            var candidates = narrow(orderings.by(sort.field()), sort.field(), query);
+            if (sort.descending()) {
+                candidates = candidates.descendingSet();
+            }
+            if (after != null) {
+                candidates = startingAfter(candidates, after);
+            }
+            var items = new ArrayList<CatResponseDTO>(Math.min(limit, DEFAULT_LIMIT));
+            String nextCursor = null;
+            for (var cat : candidates) {
+                if (!matches(cat, query)) {
+                    continue;
+                }
+                if (items.size() == limit) {
+                    nextCursor = encodeCursor(items.getLast());
+                    break;
+                }
+                items.add(cat);
+            }
+            return new CatPageDTO(Collections.unmodifiableList(items), nextCursor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static NavigableSet<CatResponseDTO> narrow(NavigableSet<CatResponseDTO> ordering, Field field, CatQueryDTO query) {
+        if (field == Field.WEIGHT && (query.minWeight() != null || query.maxWeight() != null)) {
+            var from = query.minWeight() == null ? ordering : ordering.tailSet(probe(null, query.minWeight()), true);
+            return query.maxWeight() == null ? from : from.headSet(probe(null, Math.nextUp(query.maxWeight())), false);
+        }
+        if (field == Field.NAME && query.namePrefix() != null && !query.namePrefix().isEmpty()) {
+            return ordering.subSet(probe(query.namePrefix(), null), true, probe(query.namePrefix() + Character.MAX_VALUE, null), false);
+        }
+        return ordering;
+    }
+
+    private static NavigableSet<CatResponseDTO> startingAfter(NavigableSet<CatResponseDTO> candidates, CatResponseDTO after) {
+        try {
+            return candidates.tailSet(after, false);
+        } catch (IllegalArgumentException exception) {
+            // The cursor lies outside the narrowed range, so it belongs to a different query
+            throw new CatInvalidQueryException("Invalid cursor.");
+        }
+    }
+
+    private static boolean matches(CatResponseDTO cat, CatQueryDTO query) {
+        if (query.minWeight() != null && (cat.weight() == null || cat.weight() < query.minWeight())) {
+            return false;
+        }
+        if (query.maxWeight() != null && (cat.weight() == null || cat.weight() > query.maxWeight())) {
+            return false;
+        }
+        var prefix = query.namePrefix();
+        return prefix == null || (cat.name() != null && cat.name().regionMatches(true, 0, prefix, 0, prefix.length()));
+    }
+
+    private void add(CatResponseDTO cat) {
+        byId.put(cat._id(), cat);
+        all.add(cat);
+        byColor.computeIfAbsent(colorKey(cat.color()), color -> new Orderings()).add(cat);
+    }
+
+    private void removeById(String id) {
+        var previous = byId.remove(id);
+        if (previous == null) {
+            return;
+        }
+        all.remove(previous);
+        var colorKey = colorKey(previous.color());
+        var orderings = byColor.get(colorKey);
+        if (orderings != null && orderings.remove(previous)) {
+            byColor.remove(colorKey);
+        }
+    }
+
+    private static String colorKey(String color) {
+        return color == null ? "" : color.toLowerCase(Locale.ROOT);
+    }
+
+    private static CatResponseDTO probe(String name, Double weight) {
+        return new CatResponseDTO(null, name, null, weight);
+    }
+
+    /**
+     * A cursor holds the sort keys of the last cat on the page, so it stays valid when that cat is deleted.
+     */
+    private static String encodeCursor(CatResponseDTO cat) {
+        var key = field(cat._id()) + CURSOR_SEPARATOR + field(cat.name()) + CURSOR_SEPARATOR
+                + field(cat.weight() == null ? null : cat.weight().toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CatResponseDTO decodeCursor(String cursor) {
+        try {
+            var key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var fields = key.split(String.valueOf(CURSOR_SEPARATOR), -1);
+            if (fields.length != 3) {
+                throw new IllegalArgumentException();
+            }
+            var weight = unfield(fields[2]);
+            return new CatResponseDTO(unfield(fields[0]), unfield(fields[1]), null, weight == null ? null : Double.valueOf(weight));
+        } catch (IllegalArgumentException exception) {
+            throw new CatInvalidQueryException("Invalid cursor.");
+        }
+    }
+
+    private static String field(String value) {
+        return value == null ? "-" : "+" + value;
+    }
+
+    private static String unfield(String field) {
+        if (field.equals("-")) {
+            return null;
+        }
+        if (!field.startsWith("+")) {
+            throw new IllegalArgumentException();
+        }
+        return field.substring(1);
+    }
+
+    private enum Field {
+        ID, NAME, WEIGHT
+    }
+
+    private record Sort(Field field, boolean descending) {
+
+        static Sort parse(String sort) {
+            if (sort == null || sort.isEmpty()) {
+                return new Sort(Field.ID, false);
+            }
+            var descending = sort.startsWith("-");
+            var field = switch (descending ? sort.substring(1) : sort) {
+                case "id" -> Field.ID;
+                case "name" -> Field.NAME;
+                case "weight" -> Field.WEIGHT;
+                default -> throw new CatInvalidQueryException("sort must be one of id, name or weight, optionally prefixed with '-'.");
+            };
+            return new Sort(field, descending);
+        }
+    }
+
+    private static final class Orderings {
+
+        private final NavigableSet<CatResponseDTO> byId = new TreeSet<>(BY_ID);
+
+        private final NavigableSet<CatResponseDTO> byName = new TreeSet<>(BY_NAME);
+
+        private final NavigableSet<CatResponseDTO> byWeight = new TreeSet<>(BY_WEIGHT);
+
+        void add(CatResponseDTO cat) {
+            byId.add(cat);
+            byName.add(cat);
+            byWeight.add(cat);
+        }
+
+        /**
+         * @return whether this ordering is now empty
+         */
+        boolean remove(CatResponseDTO cat) {
+            byId.remove(cat);
+            byName.remove(cat);
+            byWeight.remove(cat);
+            return byId.isEmpty();
+        }
+
+        NavigableSet<CatResponseDTO> by(Field field) {
+            return switch (field) {
+                case ID -> byId;
+                case NAME -> byName;
+                case WEIGHT -> byWeight;
+            };
+        }
+    }
+}
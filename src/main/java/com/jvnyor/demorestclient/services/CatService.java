@@ -0,0 +1,600 @@
+package com.jvnyor.demorestclient.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.jvnyor.demorestclient.dtos.CatPageDTO;
+import com.jvnyor.demorestclient.dtos.CatQueryDTO;
+import com.jvnyor.demorestclient.dtos.CatRequestDTO;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatRequestRejectedException;
+import com.jvnyor.demorestclient.services.exceptions.CatUnknownErrorException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+@Service
+public class CatService {
+
+    private static final String ALL_CATS_KEY = "all";
+
+    private static final int WRITE_GENERATION_SLOTS = 1024;
+
+    private final CrudService crudService;
+
+    private final AsyncCrudService asyncCrudService;
+
+    private final boolean cacheEnabled;
+
+    private final Cache<String, CatLookup> catCache;
+
+    private final Cache<String, CatListing> catListCache;
+
+    private final CatSnapshotStore snapshotStore;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Duration indexTtl;
+
+    private final ReentrantLock indexLock = new ReentrantLock();
+
+    // Writers share the read lock; a rebuild takes the write lock only to replay their writes and swap the index in
+    private final ReentrantReadWriteLock indexSwapLock = new ReentrantReadWriteLock();
+
+    private final AtomicLongArray catWriteGenerations = new AtomicLongArray(WRITE_GENERATION_SLOTS);
+
+    private final AtomicLong catListWriteGeneration = new AtomicLong();
+
+    private volatile CatIndex catIndex;
+
+    private volatile Queue<Consumer<CatIndex>> indexRebuildWrites;
+
+    public CatService(CrudService crudService,
+                      AsyncCrudService asyncCrudService,
+                      @Value("${crud-crud.cache.enabled:true}") boolean cacheEnabled,
+                      @Value("${crud-crud.cache.maximum-size:10000}") long maximumSize,
+                      @Value("${crud-crud.cache.ttl:30s}") Duration ttl,
+                      @Value("${crud-crud.cache.negative-ttl:5s}") Duration negativeTtl,
+                      CatSnapshotStore snapshotStore,
+                      MeterRegistry meterRegistry) {
+        this.crudService = crudService;
+        this.asyncCrudService = asyncCrudService;
+        this.cacheEnabled = cacheEnabled;
+        this.catCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new CatLookupExpiry(ttl, negativeTtl))
+                .recordStats()
+                .build();
+        this.catListCache = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfter(new CatListingExpiry(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, catCache, "cats");
+        CaffeineCacheMetrics.monitor(meterRegistry, catListCache, "cat-lists");
+        this.snapshotStore = snapshotStore;
+        this.meterRegistry = meterRegistry;
+        this.indexTtl = ttl;
+        if (cacheEnabled) {
+            // Snapshot entries only stay for what is left of the TTL, as if they had been cached when they were recorded
+            var cats = catCache.policy().expireVariably().orElseThrow();
+            snapshotStore.freshCats(ttl).forEach(cat ->
+                    cats.put(cat.value()._id(), CatLookup.found(cat.value()), ttl.minus(cat.age())));
+            snapshotStore.freshCatList(ttl).ifPresent(catList -> catListCache.policy().expireVariably().orElseThrow()
+                    .put(ALL_CATS_KEY, CatListing.of(catList.value()), ttl.minus(catList.age())));
+        }
+    }
+
+    public CatResponseDTO createCat(CatRequestDTO catRequestDTO) {
+        var catResponseDTO = crudService.createCat(catRequestDTO);
+        trackCat(catResponseDTO);
+        if (cacheEnabled) {
+            cacheWrittenCat(catResponseDTO._id(), CatLookup.found(catResponseDTO));
+            invalidateCatLists();
+        }
+        return catResponseDTO;
+    }
+
+    public CatResponseDTO getCat(String id) {
+        if (!cacheEnabled) {
+            return fetchCat(id);
+        }
+        return lookupCat(id).orElseThrow();
+    }
+
+    /**
+     * Like {@link #getCat(String)}, also returning the cat's entity tag. A cached cat carries the tag computed when it
+     * was cached, so checking it costs neither an upstream call nor serialisation.
+     */
+    public ETagged<CatResponseDTO> getCatWithETag(String id) {
+        if (!cacheEnabled) {
+            var catResponseDTO = fetchCat(id);
+            return new ETagged<>(catResponseDTO, CatETags.of(catResponseDTO));
+        }
+        return lookupCat(id).orElseThrowTagged();
+    }
+
+    /**
+     * Loads a missing cat outside the cache's compute lock: Caffeine runs a mapping function while holding a
+     * {@code ConcurrentHashMap} bin lock, which would pin a virtual thread to its carrier for the whole upstream call.
+     * Concurrent misses for the same id still share one upstream call through {@link CrudService}'s single-flight.
+     */
+    private CatLookup lookupCat(String id) {
+        var cached = catCache.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        var generation = catWriteGeneration(id);
+        var loaded = loadCat(id);
+        cacheLoadedCat(id, generation, loaded);
+        return loaded;
+    }
+
+    private CatListing lookupCats() {
+        var cached = catListCache.getIfPresent(ALL_CATS_KEY);
+        if (cached != null) {
+            return cached;
+        }
+        var generation = catListWriteGeneration.get();
+        var loaded = CatListing.of(fetchCats());
+        cacheLoadedCats(generation, loaded);
+        return loaded;
+    }
+
+    /**
+     * A load runs without any lock, so a write to the same cat can complete while it is in flight. Every write bumps
+     * the cat's write generation before touching the cache, and a loaded value is only cached if the generation is
+     * still the one read before the load: otherwise it may predate the write and would bring the old cat back. Ids
+     * share {@code WRITE_GENERATION_SLOTS} counters, so a write may also skip caching an unrelated load.
+     */
+    private long catWriteGeneration(String id) {
+        return catWriteGenerations.get(writeGenerationSlot(id));
+    }
+
+    private void cacheLoadedCat(String id, long generation, CatLookup loaded) {
+        var slot = writeGenerationSlot(id);
+        catCache.asMap().compute(id, (key, current) -> catWriteGenerations.get(slot) == generation ? loaded : current);
+    }
+
+    /**
+     * Caches what a write left behind, or with {@code null} invalidates the cat, making loads in flight stale.
+     */
+    private void cacheWrittenCat(String id, CatLookup written) {
+        catWriteGenerations.incrementAndGet(writeGenerationSlot(id));
+        if (written == null) {
+            catCache.invalidate(id);
+        } else {
+            catCache.put(id, written);
+        }
+    }
+
+    private void cacheLoadedCats(long generation, CatListing loaded) {
+        catListCache.asMap().compute(ALL_CATS_KEY, (key, current) -> catListWriteGeneration.get() == generation ? loaded : current);
+    }
+
+    private void invalidateCatLists() {
+        catListWriteGeneration.incrementAndGet();
+        catListCache.invalidateAll();
+    }
+
+    private static int writeGenerationSlot(String id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % WRITE_GENERATION_SLOTS;
+    }
+
+    private CatLookup loadCat(String id) {
+        return lookupOf(() -> fetchCat(id));
+    }
+
+    private static CatLookup lookupOf(Supplier<CatResponseDTO> fetch) {
+        try {
+            return CatLookup.found(fetch.get());
+        } catch (CatNotFoundException exception) {
+            return CatLookup.notFound();
+        }
+    }
+
+    private CatResponseDTO fetchCat(String id) {
+        CatResponseDTO catResponseDTO;
+        try {
+            catResponseDTO = crudService.getCat(id);
+        } catch (RuntimeException exception) {
+            return fetchedCat(id, null, exception);
+        }
+        return fetchedCat(id, catResponseDTO, null);
+    }
+
+    /**
+     * Completes a read of a cat from the upstream, for both the blocking and the async client: a returned cat is
+     * tracked, a missing one untracked, and an outage answered from the snapshot when it has the cat.
+     */
+    private CatResponseDTO fetchedCat(String id, CatResponseDTO catResponseDTO, Throwable exception) {
+        if (exception == null) {
+            trackCat(catResponseDTO);
+            return catResponseDTO;
+        }
+        if (exception instanceof CatNotFoundException notFound) {
+            untrackCat(id);
+            throw notFound;
+        }
+        return staleOrThrow("get", () -> snapshotStore.findCat(id), exception);
+    }
+
+    /**
+     * Records a cat the upstream just returned or accepted in the local snapshot and in the query index.
+     */
+    private void trackCat(CatResponseDTO catResponseDTO) {
+        snapshotStore.putCat(catResponseDTO);
+        writeIndex(index -> index.put(catResponseDTO));
+    }
+
+    private void untrackCat(String id) {
+        snapshotStore.removeCat(id);
+        writeIndex(index -> index.remove(id));
+    }
+
+    /**
+     * Applies a write to the current index and, while one is being rebuilt, records it for the rebuilt index, which
+     * may have been built from a list read before the write.
+     */
+    private void writeIndex(Consumer<CatIndex> write) {
+        indexSwapLock.readLock().lock();
+        try {
+            var index = catIndex;
+            if (index != null) {
+                write.accept(index);
+            }
+            var rebuildWrites = indexRebuildWrites;
+            if (rebuildWrites != null) {
+                rebuildWrites.add(write);
+            }
+        } finally {
+            indexSwapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Answers from the snapshot when the upstream could not answer, but not when it refused the request itself: a 4xx
+     * is not an outage, and the client has to see it.
+     */
+    private <T> T staleOrThrow(String operation, Supplier<Optional<T>> snapshot, Throwable exception) {
+        var stale = isOutage(exception) ? snapshot.get() : Optional.<T>empty();
+        if (stale.isEmpty()) {
+            // Only the async client fails with checked exceptions, and its futures are completed with the cause
+            throw exception instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(exception);
+        }
+        Counter.builder("crud.snapshot.stale-reads")
+                .description("Reads answered from the local snapshot because the upstream call failed")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment();
+        return stale.get();
+    }
+
+    private static boolean isOutage(Throwable exception) {
+        return exception instanceof CatUpstreamUnavailableException
+                || exception instanceof ResourceAccessException
+                || exception instanceof WebClientRequestException
+                || exception instanceof TimeoutException
+                || exception instanceof CatUnknownErrorException && !(exception instanceof CatRequestRejectedException);
+    }
+
+    public void updateCat(String id, CatRequestDTO catRequestDTO) {
+        try {
+            crudService.updateCat(id, catRequestDTO);
+        } catch (CatNotFoundException exception) {
+            untrackCat(id);
+            if (cacheEnabled) {
+                cacheWrittenCat(id, CatLookup.notFound());
+            }
+            throw exception;
+        }
+        var catResponseDTO = new CatResponseDTO(id, catRequestDTO.name(), catRequestDTO.color(), catRequestDTO.weight());
+        trackCat(catResponseDTO);
+        if (cacheEnabled) {
+            cacheWrittenCat(id, CatLookup.found(catResponseDTO));
+            invalidateCatLists();
+        }
+    }
+
+    /**
+     * Caches an update accepted for a later upstream write by {@link CatWriteBehindService}, so that reads see it
+     * before it is flushed. The flush itself goes through {@link #updateCat(String, CatRequestDTO)}.
+     */
+    public void cacheUpdate(String id, CatRequestDTO catRequestDTO) {
+        if (cacheEnabled) {
+            cacheWrittenCat(id, CatLookup.found(new CatResponseDTO(id, catRequestDTO.name(), catRequestDTO.color(), catRequestDTO.weight())));
+            invalidateCatLists();
+        }
+    }
+
+    /**
+     * Forgets a cached cat, such as one cached by {@link #cacheUpdate(String, CatRequestDTO)} whose write was dropped.
+     */
+    public void evictCat(String id) {
+        if (cacheEnabled) {
+            cacheWrittenCat(id, null);
+        }
+    }
+
+    public void deleteCat(String id) {
+        try {
+            crudService.deleteCat(id);
+            untrackCat(id);
+        } catch (CatNotFoundException exception) {
+            untrackCat(id);
+            throw exception;
+        } finally {
+            if (cacheEnabled) {
+                cacheWrittenCat(id, null);
+                invalidateCatLists();
+            }
+        }
+    }
+
+    public List<CatResponseDTO> listCats() {
+        if (!cacheEnabled) {
+            return fetchCats();
+        }
+        return lookupCats().cats();
+    }
+
+    /**
+     * Filters, sorts and pages the cats from the query index. The index is built from {@link #listCats()}, kept up to
+     * date by this service's own writes, and rebuilt once it is older than the cache TTL to pick up foreign changes.
+     */
+    public CatPageDTO queryCats(CatQueryDTO query) {
+        return catIndex().query(query);
+    }
+
+    private CatIndex catIndex() {
+        var index = catIndex;
+        if (index != null && System.nanoTime() - index.builtAtNanos() < indexTtl.toNanos()) {
+            return index;
+        }
+        indexLock.lock();
+        try {
+            index = catIndex;
+            if (index == null || System.nanoTime() - index.builtAtNanos() >= indexTtl.toNanos()) {
+                index = rebuildIndex();
+            }
+            return index;
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    private CatIndex rebuildIndex() {
+        var rebuildWrites = new ConcurrentLinkedQueue<Consumer<CatIndex>>();
+        indexRebuildWrites = rebuildWrites;
+        try {
+            var rebuilt = new CatIndex(listCats(), System.nanoTime());
+            indexSwapLock.writeLock().lock();
+            try {
+                rebuildWrites.forEach(write -> write.accept(rebuilt));
+                catIndex = rebuilt;
+                return rebuilt;
+            } finally {
+                indexSwapLock.writeLock().unlock();
+            }
+        } finally {
+            indexRebuildWrites = null;
+        }
+    }
+
+    public ETagged<List<CatResponseDTO>> listCatsWithETag() {
+        var catListing = cacheEnabled
+                ? lookupCats()
+                : CatListing.of(fetchCats());
+        return new ETagged<>(catListing.cats(), catListing.eTag());
+    }
+
+    private List<CatResponseDTO> fetchCats() {
+        List<CatResponseDTO> cats;
+        try {
+            cats = crudService.listCats();
+        } catch (RuntimeException exception) {
+            return fetchedCats(null, exception);
+        }
+        return fetchedCats(cats, null);
+    }
+
+    /**
+     * Completes a read of the cat list from the upstream, for both the blocking and the async client: a returned list
+     * is recorded in the snapshot, and an outage answered from the snapshot when it has a list.
+     */
+    private List<CatResponseDTO> fetchedCats(List<CatResponseDTO> cats, Throwable exception) {
+        if (exception != null) {
+            return staleOrThrow("list", snapshotStore::findCats, exception);
+        }
+        var catList = List.copyOf(cats);
+        snapshotStore.putCats(catList);
+        return catList;
+    }
+
+    /**
+     * Raw reads go straight to the upstream and bypass the cache, which holds bound {@link CatResponseDTO}s.
+     */
+    public byte[] getCatRaw(String id) {
+        return crudService.getCatRaw(id);
+    }
+
+    public byte[] listCatsRaw() {
+        return crudService.listCatsRaw();
+    }
+
+    public CompletableFuture<CatResponseDTO> createCatAsync(CatRequestDTO catRequestDTO) {
+        return asyncCrudService.createCat(catRequestDTO).thenApply(catResponseDTO -> {
+            trackCat(catResponseDTO);
+            if (cacheEnabled) {
+                cacheWrittenCat(catResponseDTO._id(), CatLookup.found(catResponseDTO));
+                invalidateCatLists();
+            }
+            return catResponseDTO;
+        });
+    }
+
+    public CompletableFuture<CatResponseDTO> getCatAsync(String id) {
+        var cached = cacheEnabled ? catCache.getIfPresent(id) : null;
+        if (cached != null) {
+            return cached.isFound()
+                    ? CompletableFuture.completedFuture(cached.cat())
+                    : CompletableFuture.failedFuture(new CatNotFoundException());
+        }
+        var generation = catWriteGeneration(id);
+        return asyncCrudService.getCat(id).handle((catResponseDTO, exception) -> {
+            var loaded = lookupOf(() -> fetchedCat(id, catResponseDTO, exception));
+            if (cacheEnabled) {
+                cacheLoadedCat(id, generation, loaded);
+            }
+            return loaded.orElseThrow();
+        });
+    }
+
+    public CompletableFuture<Void> updateCatAsync(String id, CatRequestDTO catRequestDTO) {
+        return asyncCrudService.updateCat(id, catRequestDTO).whenComplete((ignored, exception) -> {
+            var catResponseDTO = new CatResponseDTO(id, catRequestDTO.name(), catRequestDTO.color(), catRequestDTO.weight());
+            if (exception == null) {
+                trackCat(catResponseDTO);
+            } else if (exception instanceof CatNotFoundException) {
+                untrackCat(id);
+            }
+            if (!cacheEnabled) {
+                return;
+            }
+            if (exception == null) {
+                cacheWrittenCat(id, CatLookup.found(catResponseDTO));
+                invalidateCatLists();
+            } else if (exception instanceof CatNotFoundException) {
+                cacheWrittenCat(id, CatLookup.notFound());
+            }
+        });
+    }
+
+    public CompletableFuture<Void> deleteCatAsync(String id) {
+        return asyncCrudService.deleteCat(id).whenComplete((ignored, exception) -> {
+            if (exception == null || exception instanceof CatNotFoundException) {
+                untrackCat(id);
+            }
+            if (cacheEnabled) {
+                cacheWrittenCat(id, null);
+                invalidateCatLists();
+            }
+        });
+    }
+
+    public CompletableFuture<List<CatResponseDTO>> listCatsAsync() {
+        var cachedCats = cacheEnabled ? catListCache.getIfPresent(ALL_CATS_KEY) : null;
+        if (cachedCats != null) {
+            return CompletableFuture.completedFuture(cachedCats.cats());
+        }
+        var generation = catListWriteGeneration.get();
+        return asyncCrudService.listCats().handle((cats, exception) -> {
+            var catList = fetchedCats(cats, exception);
+            if (cacheEnabled) {
+                cacheLoadedCats(generation, CatListing.of(catList));
+            }
+            return catList;
+        });
+    }
+
+    public void streamCats(Consumer<CatResponseDTO> consumer) {
+        var cachedCats = cacheEnabled ? catListCache.getIfPresent(ALL_CATS_KEY) : null;
+        if (cachedCats != null) {
+            cachedCats.cats().forEach(consumer);
+            return;
+        }
+        crudService.streamCats(consumer);
+    }
+
+    private record CatLookup(CatResponseDTO cat, String eTag) {
+
+        private static final CatLookup NOT_FOUND = new CatLookup(null, null);
+
+        static CatLookup found(CatResponseDTO cat) {
+            return new CatLookup(cat, CatETags.of(cat));
+        }
+
+        static CatLookup notFound() {
+            return NOT_FOUND;
+        }
+
+        boolean isFound() {
+            return cat != null;
+        }
+
+        CatResponseDTO orElseThrow() {
+            if (cat == null) {
+                throw new CatNotFoundException();
+            }
+            return cat;
+        }
+
+        ETagged<CatResponseDTO> orElseThrowTagged() {
+            return new ETagged<>(orElseThrow(), eTag);
+        }
+    }
+
+    private record CatListing(List<CatResponseDTO> cats, String eTag) {
+
+        static CatListing of(List<CatResponseDTO> cats) {
+            return new CatListing(cats, CatETags.of(cats));
+        }
+    }
+
+    private record CatListingExpiry(Duration ttl) implements Expiry<String, CatListing> {
+
+        @Override
+        public long expireAfterCreate(String key, CatListing value, long currentTime) {
+            return ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CatListing value, long currentTime, long currentDuration) {
+            return ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CatListing value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private record CatLookupExpiry(Duration ttl, Duration negativeTtl) implements Expiry<String, CatLookup> {
+
+        @Override
+        public long expireAfterCreate(String key, CatLookup value, long currentTime) {
+            return (value.isFound() ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CatLookup value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CatLookup value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
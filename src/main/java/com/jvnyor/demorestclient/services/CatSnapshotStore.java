@@ -0,0 +1,439 @@
+package com.jvnyor.demorestclient.services;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local copy of the cats seen through {@link CatService}, kept in memory and persisted as an append-only log of JSON
+ * lines. The log is replayed and compacted on startup, so a restarted instance can prewarm its cache and still answer
+ * reads from the last known state when the upstream is unavailable, as long as that state is younger than
+ * {@code max-staleness}.
+ * <p>
+ * Requests only update the in-memory copy, under a short lock; the log is written, flushed and compacted by a
+ * background appender thread, so no request waits for the disk. Records still queued when the process dies are lost,
+ * which only makes the snapshot older.
+ */
+@Service
+@RegisterReflectionForBinding(CatSnapshotStore.SnapshotRecord.class)
+public class CatSnapshotStore {
+
+    private static final int MIN_COMPACTION_APPENDS = 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(CatSnapshotStore.class);
+
+    private final boolean enabled;
+
+    private final Path path;
+
+    private final Duration maxStaleness;
+
+    private final ObjectMapper objectMapper;
+
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Map<String, Snapshot> cats = new LinkedHashMap<>();
+
+    private long listRecordedAt = -1;
+
+    private final Queue<SnapshotRecord> pendingRecords = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    private final ExecutorService appender;
+
+    // Only used by the appender thread once the store is constructed
+    private BufferedWriter writer;
+
+    private int appendsSinceCompaction;
+
+    @Autowired
+    public CatSnapshotStore(@Value("${crud-crud.snapshot.enabled:false}") boolean enabled,
+                            @Value("${crud-crud.snapshot.path:data/cats.log}") Path path,
+                            @Value("${crud-crud.snapshot.max-staleness:1h}") Duration maxStaleness,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this(enabled, path, maxStaleness, objectMapper, meterRegistry, Clock.systemUTC());
+    }
+
+    CatSnapshotStore(boolean enabled, Path path, Duration maxStaleness, ObjectMapper objectMapper, MeterRegistry meterRegistry, Clock clock) {
+        this.enabled = enabled;
+        this.path = path;
+        this.maxStaleness = maxStaleness;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        Gauge.builder("crud.snapshot.entries", this, CatSnapshotStore::size)
+                .description("Cats held in the local snapshot store")
+                .register(meterRegistry);
+        if (enabled) {
+            load();
+            this.appender = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("cat-snapshot").daemon().factory());
+        } else {
+            this.appender = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<CatResponseDTO> findCat(String id) {
+        lock.lock();
+        try {
+            var snapshot = cats.get(id);
+            return snapshot != null && isFresh(snapshot.recordedAt()) ? Optional.of(snapshot.cat()) : Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the last full list of cats, with later creates, updates and deletes applied, if it is fresh enough.
+     */
+    public Optional<List<CatResponseDTO>> findCats() {
+        lock.lock();
+        try {
+            if (listRecordedAt < 0 || !isFresh(listRecordedAt)) {
+                return Optional.empty();
+            }
+            return Optional.of(catList());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the cats recorded less than {@code maxAge} ago, with their age, so that a cache can be prewarmed with
+     * what is left of their time to live.
+     */
+    public List<Aged<CatResponseDTO>> freshCats(Duration maxAge) {
+        lock.lock();
+        try {
+            var now = clock.millis();
+            return cats.values().stream()
+                    .filter(snapshot -> now - snapshot.recordedAt() < maxAge.toMillis())
+                    .map(snapshot -> new Aged<>(snapshot.cat(), Duration.ofMillis(now - snapshot.recordedAt())))
+                    .toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Like {@link #findCats()}, for a list recorded less than {@code maxAge} ago, with its age.
+     */
+    public Optional<Aged<List<CatResponseDTO>>> freshCatList(Duration maxAge) {
+        lock.lock();
+        try {
+            var age = clock.millis() - listRecordedAt;
+            if (listRecordedAt < 0 || age >= maxAge.toMillis()) {
+                return Optional.empty();
+            }
+            return Optional.of(new Aged<>(catList(), Duration.ofMillis(age)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void putCat(CatResponseDTO cat) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            var now = clock.millis();
+            var previous = cats.put(cat._id(), new Snapshot(cat, now));
+            // Re-reading an unchanged cat only refreshes it in memory; after a restart it simply looks older than it is
+            if (previous == null || !previous.cat().equals(cat)) {
+                append(SnapshotRecord.put(cat, now));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the cats with a full list. Only the difference is logged: a record per added, changed or removed cat,
+     * then a list marker that makes the whole set count as a list on replay.
+     */
+    public void putCats(List<CatResponseDTO> catList) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            var now = clock.millis();
+            var previous = new LinkedHashMap<>(cats);
+            cats.clear();
+            for (var cat : catList) {
+                cats.put(cat._id(), new Snapshot(cat, now));
+                var previousSnapshot = previous.remove(cat._id());
+                if (previousSnapshot == null || !previousSnapshot.cat().equals(cat)) {
+                    append(SnapshotRecord.put(cat, now));
+                }
+            }
+            previous.keySet().forEach(id -> append(SnapshotRecord.delete(id, now)));
+            listRecordedAt = now;
+            append(SnapshotRecord.list(null, now));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void removeCat(String id) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (cats.remove(id) != null) {
+                append(SnapshotRecord.delete(id, clock.millis()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return cats.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<CatResponseDTO> catList() {
+        return cats.values().stream().map(Snapshot::cat).toList();
+    }
+
+    private boolean isFresh(long recordedAt) {
+        return clock.millis() - recordedAt <= maxStaleness.toMillis();
+    }
+
+    private void load() {
+        if (Files.exists(path)) {
+            try (var reader = Files.newBufferedReader(path)) {
+                var lineNumber = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        apply(objectMapper.readValue(line, SnapshotRecord.class));
+                    } catch (JsonProcessingException exception) {
+                        // Most likely a record cut short by a crash; everything before it is still usable
+                        logger.warn("Skipping unreadable snapshot record at {}:{}", path, lineNumber);
+                    }
+                }
+            } catch (IOException exception) {
+                logger.warn("Could not read cat snapshot {}, starting empty", path, exception);
+            }
+        }
+        logger.info("Loaded {} cats from snapshot {}", cats.size(), path);
+        compact();
+    }
+
+    private void apply(SnapshotRecord record) {
+        switch (record.op()) {
+            case SnapshotRecord.PUT -> cats.put(record.cat()._id(), new Snapshot(record.cat(), record.timestamp()));
+            case SnapshotRecord.DELETE -> cats.remove(record.id());
+            case SnapshotRecord.LIST -> {
+                if (record.cats() != null) {
+                    cats.clear();
+                    record.cats().forEach(cat -> cats.put(cat._id(), new Snapshot(cat, record.timestamp())));
+                }
+                listRecordedAt = record.timestamp();
+            }
+            default -> logger.warn("Ignoring snapshot record with unknown op {}", record.op());
+        }
+    }
+
+    /**
+     * Queues a record for the appender, in the order of the in-memory changes since it is called under the lock.
+     */
+    private void append(SnapshotRecord record) {
+        if (appender == null) {
+            return;
+        }
+        pendingRecords.add(record);
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                appender.execute(this::drain);
+            } catch (RejectedExecutionException exception) {
+                // Closed: the record stays in memory only
+                drainScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes every queued record and flushes once, on the appender thread.
+     */
+    private void drain() {
+        drainScheduled.set(false);
+        try {
+            if (writer == null) {
+                openWriter();
+            }
+            SnapshotRecord record;
+            while ((record = pendingRecords.poll()) != null) {
+                writer.write(objectMapper.writeValueAsString(record));
+                writer.newLine();
+                appendsSinceCompaction++;
+            }
+            writer.flush();
+            if (appendsSinceCompaction > Math.max(MIN_COMPACTION_APPENDS, 2 * size())) {
+                compact();
+            }
+        } catch (IOException exception) {
+            logger.warn("Could not append to cat snapshot {}", path, exception);
+        }
+    }
+
+    /**
+     * Rewrites the log as one record per live cat, replacing the old file atomically.
+     */
+    private void compact() {
+        var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            closeWriter();
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            // Records queued meanwhile are already part of this copy; appending them again after it replays to the same state
+            var records = currentRecords();
+            try (var temporaryWriter = Files.newBufferedWriter(temporary)) {
+                for (var record : records) {
+                    temporaryWriter.write(objectMapper.writeValueAsString(record));
+                    temporaryWriter.newLine();
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            appendsSinceCompaction = 0;
+        } catch (IOException exception) {
+            logger.warn("Could not compact cat snapshot {}", path, exception);
+        }
+    }
+
+    private List<SnapshotRecord> currentRecords() {
+        lock.lock();
+        try {
+            var records = new ArrayList<SnapshotRecord>(cats.size() + 1);
+            cats.values().forEach(snapshot -> records.add(SnapshotRecord.put(snapshot.cat(), snapshot.recordedAt())));
+            if (listRecordedAt >= 0) {
+                records.add(SnapshotRecord.list(null, listRecordedAt));
+            }
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void openWriter() throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        writer = Files.newBufferedWriter(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Writes what is still queued, then closes the log.
+     */
+    @PreDestroy
+    public void close() {
+        if (appender == null) {
+            return;
+        }
+        appender.shutdown();
+        try {
+            if (!appender.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Timed out writing the cat snapshot {}", path);
+                return;
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            if (!pendingRecords.isEmpty()) {
+                drain();
+            }
+            closeWriter();
+        } catch (IOException exception) {
+            logger.warn("Could not close cat snapshot {}", path, exception);
+        }
+    }
+
+    public record Aged<T>(T value, Duration age) {
+    }
+
+    private record Snapshot(CatResponseDTO cat, long recordedAt) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record SnapshotRecord(String op, long timestamp, String id, CatResponseDTO cat, List<CatResponseDTO> cats) {
+
+        static final String PUT = "put";
+
+        static final String DELETE = "delete";
+
+        static final String LIST = "list";
+
+        static SnapshotRecord put(CatResponseDTO cat, long timestamp) {
+            return new SnapshotRecord(PUT, timestamp, null, Objects.requireNonNull(cat), null);
+        }
+
+        static SnapshotRecord delete(String id, long timestamp) {
+            return new SnapshotRecord(DELETE, timestamp, id, null, null);
+        }
+
+        static SnapshotRecord list(List<CatResponseDTO> cats, long timestamp) {
+            return new SnapshotRecord(LIST, timestamp, null, null, cats);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.dtos.CatRequestDTO;
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatRequestRejectedException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpdateQueueFullException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Queues cat updates and writes them upstream in the background. Pending writes to the same id are coalesced, so only
+ * the last one is sent. A flush runs every {@code flush-interval}, or as soon as {@code max-batch-size} distinct ids are
+ * pending, and anything still queued is flushed on shutdown.
+ * <p>
+ * At most {@code max-queue-depth} distinct ids are pending: beyond that, and once shutting down, updates are refused
+ * with a 503. A queued update is cached by {@link CatService} right away, so reads see it before it is flushed.
+ * <p>
+ * A write that fails for a reason that may pass (the cat API unavailable, a 5xx, an I/O error) stays queued and is
+ * retried with exponential backoff, never before the {@code Retry-After} of the failure, until {@code max-retry-time}
+ * has passed since the update was first queued. An update that is not found, rejected with a 4xx or out of retry time
+ * is dropped and no longer served from the cache.
+ */
+@Service
+public class CatWriteBehindService {
+
+    static final String QUEUE_DEPTH_METRIC = "crud.write-behind.queue-depth";
+
+    static final String FLUSH_LAG_METRIC = "crud.write-behind.flush-lag";
+
+    static final String COALESCED_METRIC = "crud.write-behind.coalesced";
+
+    private static final Duration INITIAL_RETRY_BACKOFF = Duration.ofSeconds(1);
+
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofSeconds(30);
+
+    private final Logger logger = LoggerFactory.getLogger(CatWriteBehindService.class);
+
+    private final CatService catService;
+
+    private final boolean enabled;
+
+    private final int maxBatchSize;
+
+    private final int maxParallelism;
+
+    private final int maxQueueDepth;
+
+    private final Duration maxRetryTime;
+
+    private final Duration flushInterval;
+
+    private volatile boolean closed;
+
+    private final Map<String, PendingUpdate> pending = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final ScheduledExecutorService scheduler;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter coalesced;
+
+    private final LongSupplier clock;
+
+    @Autowired
+    public CatWriteBehindService(CatService catService,
+                                 @Value("${crud-crud.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${crud-crud.write-behind.max-batch-size:100}") int maxBatchSize,
+                                 @Value("${crud-crud.write-behind.flush-interval:200ms}") Duration flushInterval,
+                                 @Value("${crud-crud.write-behind.max-parallelism:8}") int maxParallelism,
+                                 @Value("${crud-crud.write-behind.max-queue-depth:10000}") int maxQueueDepth,
+                                 @Value("${crud-crud.write-behind.max-retry-time:1m}") Duration maxRetryTime,
+                                 MeterRegistry meterRegistry) {
+        this(catService, enabled, maxBatchSize, flushInterval, maxParallelism, maxQueueDepth, maxRetryTime, meterRegistry, System::nanoTime);
+    }
+
+    CatWriteBehindService(CatService catService, boolean enabled, int maxBatchSize, Duration flushInterval, int maxParallelism,
+                          int maxQueueDepth, Duration maxRetryTime, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.catService = catService;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxParallelism = maxParallelism;
+        this.maxQueueDepth = maxQueueDepth;
+        this.maxRetryTime = maxRetryTime;
+        this.flushInterval = flushInterval;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.coalesced = Counter.builder(COALESCED_METRIC)
+                .description("Cat updates replaced by a later update to the same id before being flushed")
+                .register(meterRegistry);
+        meterRegistry.gauge(QUEUE_DEPTH_METRIC, pending, Map::size);
+        if (enabled) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("cat-write-behind").daemon().factory());
+            var intervalMillis = flushInterval.toMillis();
+            this.scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void updateCat(String id, CatRequestDTO catRequestDTO) {
+        if (closed) {
+            throw new CatUpstreamUnavailableException(Duration.ofSeconds(1));
+        }
+        var now = clock.getAsLong();
+        var update = new PendingUpdate(catRequestDTO, now, 1, now);
+        // Caching inside the compute keeps the cached cat in the order the updates were queued
+        var queued = pending.compute(id, (key, previous) -> {
+            if (previous == null && pending.size() >= maxQueueDepth) {
+                throw new CatUpdateQueueFullException(flushInterval);
+            }
+            catService.cacheUpdate(id, catRequestDTO);
+            if (previous == null) {
+                return update;
+            }
+            coalesced.increment();
+            // A write waiting to be retried keeps waiting: the upstream has not recovered because a newer update came in
+            return new PendingUpdate(catRequestDTO, previous.queuedAtNanos(), previous.attempt(), previous.notBeforeNanos());
+        });
+        if (queued == update && pending.size() >= maxBatchSize && scheduler != null && flushRequested.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flushQuietly);
+            } catch (RejectedExecutionException exception) {
+                // Shutting down: close() flushes what is queued
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes every pending update that is not waiting for a retry upstream, at most {@code max-parallelism} at a time,
+     * and returns once they have all completed. Flushes never overlap, so two writes to the same id always reach the
+     * upstream in order.
+     */
+    void flush() {
+        flush(false);
+    }
+
+    /**
+     * @param all whether to also write the updates that are waiting for a retry, for a last attempt on shutdown
+     */
+    private void flush(boolean all) {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            var now = clock.getAsLong();
+            var batch = new ArrayList<Map.Entry<String, PendingUpdate>>();
+            for (var entry : pending.entrySet()) {
+                var update = entry.getValue();
+                if ((all || update.notBeforeNanos() - now <= 0) && pending.remove(entry.getKey(), update)) {
+                    batch.add(Map.entry(entry.getKey(), update));
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            var permits = new Semaphore(maxParallelism);
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (var entry : batch) {
+                    executor.submit(() -> {
+                        permits.acquire();
+                        try {
+                            write(entry.getKey(), entry.getValue());
+                        } finally {
+                            permits.release();
+                        }
+                        return null;
+                    });
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(String id, PendingUpdate update) {
+        String outcome;
+        try {
+            catService.updateCat(id, update.catRequestDTO());
+            outcome = "success";
+        } catch (CatNotFoundException exception) {
+            logger.warn("Dropping queued update for cat {}: cat not found", id);
+            outcome = "not_found";
+        } catch (CatRequestRejectedException exception) {
+            logger.error("Dropping queued update for cat {}: the cat API rejected it", id);
+            evictUnlessRequeued(id);
+            outcome = "rejected";
+        } catch (CatUpstreamUnavailableException exception) {
+            outcome = retry(id, update, exception.getRetryAfter(), exception);
+        } catch (RuntimeException exception) {
+            outcome = retry(id, update, Duration.ZERO, exception);
+        }
+        Timer.builder(FLUSH_LAG_METRIC)
+                .description("Time from queueing a cat update to its upstream write completing")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - update.queuedAtNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Requeues the update for a retry after the longer of {@code retryAfter} and the backoff of its attempt, or at the
+     * end of its retry time, unless that has already passed.
+     */
+    private String retry(String id, PendingUpdate update, Duration retryAfter, RuntimeException exception) {
+        var now = clock.getAsLong();
+        var deadline = update.queuedAtNanos() + maxRetryTime.toNanos();
+        if (now - deadline >= 0) {
+            logger.error("Dropping queued update for cat {}: the cat API still failed after {} attempts in {}", id, update.attempt(), maxRetryTime, exception);
+            evictUnlessRequeued(id);
+            return "abandoned";
+        }
+        var backoff = INITIAL_RETRY_BACKOFF.multipliedBy(1L << Math.min(update.attempt() - 1, 30));
+        if (backoff.compareTo(MAX_RETRY_BACKOFF) > 0) {
+            backoff = MAX_RETRY_BACKOFF;
+        }
+        var delay = retryAfter == null || backoff.compareTo(retryAfter) > 0 ? backoff : retryAfter;
+        var notBefore = deadline - (now + delay.toNanos()) < 0 ? deadline : now + delay.toNanos();
+        // Keep the write unless a newer one for the same id has been queued meanwhile
+        pending.putIfAbsent(id, new PendingUpdate(update.catRequestDTO(), update.queuedAtNanos(), update.attempt() + 1, notBefore));
+        return "requeued";
+    }
+
+    /**
+     * Evicts the cat cached when the dropped update was queued, unless a newer update for it is pending.
+     */
+    private void evictUnlessRequeued(String id) {
+        pending.compute(id, (key, newer) -> {
+            if (newer == null) {
+                catService.evictCat(id);
+            }
+            return newer;
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException exception) {
+            logger.error("Write-behind flush failed", exception);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush(true);
+        if (!pending.isEmpty()) {
+            logger.warn("Shutting down with {} queued cat updates that could not be written", pending.size());
+        }
+    }
+
+    private record PendingUpdate(CatRequestDTO catRequestDTO, long queuedAtNanos, int attempt, long notBeforeNanos) {
+    }
+}
@@ -0,0 +1,181 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatRequestRejectedException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamUnavailableException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final boolean[] window;
+
+    private final int minimumCalls;
+
+    private final double failureRateThreshold;
+
+    private final long openNanos;
+
+    private final int halfOpenCalls;
+
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+
+    private int next;
+
+    private int size;
+
+    private int failures;
+
+    private long openedAt;
+
+    private int halfOpenPermitsLeft;
+
+    private int halfOpenSuccesses;
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration, int halfOpenCalls) {
+        this(windowSize, minimumCalls, failureRateThreshold, openDuration, halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration, int halfOpenCalls, LongSupplier clock) {
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock;
+    }
+
+    <T> T execute(Supplier<T> call) {
+        acquirePermission();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error exception) {
+            onResult(exception);
+            throw exception;
+        }
+        onResult(null);
+        return result;
+    }
+
+    /**
+     * Records the outcome of a call admitted by {@link #acquirePermission()}: {@code null} for a success, or the
+     * exception it failed with.
+     */
+    void onResult(Throwable exception) {
+        if (exception instanceof CatUpstreamUnavailableException) {
+            onIgnored();
+        } else {
+            onComplete(exception == null || exception instanceof CatNotFoundException || exception instanceof CatRequestRejectedException);
+        }
+    }
+
+    State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Admits a call or fails fast with {@link CatUpstreamUnavailableException}; an admitted call ends with
+     * {@link #onResult(Throwable)}, or {@link #onIgnored()} if it was abandoned without an outcome.
+     */
+    void acquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                var elapsed = clock.getAsLong() - openedAt;
+                if (elapsed < openNanos) {
+                    throw new CatUpstreamUnavailableException(Duration.ofNanos(openNanos - elapsed));
+                }
+                state = State.HALF_OPEN;
+                halfOpenPermitsLeft = halfOpenCalls;
+                halfOpenSuccesses = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermitsLeft == 0) {
+                    throw new CatUpstreamUnavailableException(Duration.ofNanos(openNanos));
+                }
+                halfOpenPermitsLeft--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onComplete(boolean success) {
+        lock.lock();
+        try {
+            switch (state) {
+                case CLOSED -> {
+                    recordInWindow(success);
+                    if (size >= minimumCalls && failures >= failureRateThreshold * size) {
+                        open();
+                    }
+                }
+                case HALF_OPEN -> {
+                    if (!success) {
+                        open();
+                    } else if (++halfOpenSuccesses == halfOpenCalls) {
+                        close();
+                    }
+                }
+                case OPEN -> {
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onIgnored() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                halfOpenPermitsLeft++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordInWindow(boolean success) {
+        if (size == window.length && window[next]) {
+            failures--;
+        }
+        window[next] = !success;
+        if (!success) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+        size = Math.min(size + 1, window.length);
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        Arrays.fill(window, false);
+        next = 0;
+        size = 0;
+        failures = 0;
+    }
+}
@@ -1,51 +1,217 @@
 package com.jvnyor.demorestclient.services;
 
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.demorestclient.configs.UpstreamRequestFactories;
 import com.jvnyor.demorestclient.dtos.CatRequestDTO;
 import com.jvnyor.demorestclient.dtos.CatResponseDTO;
 import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatRequestRejectedException;
 import com.jvnyor.demorestclient.services.exceptions.CatUnknownErrorException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamBusyException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClient;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 @Service
 public class CrudService {
 
+    private static final byte[] EMPTY_JSON_ARRAY = {'[', ']'};
+
     private final Logger logger = LoggerFactory.getLogger(CrudService.class);
 
-    private final RestClient restClient;
+    private final UpstreamEndpoints endpoints;
+
+    private final List<RestClient> restClients;
+
+    private final SingleFlight singleFlight;
+
+    private final boolean singleFlightEnabled;
+
+    private final UpstreamBulkhead bulkhead;
+
+    private final ObjectMapper objectMapper;
+
+    private final UpstreamMetrics metrics;
+
+    private final Hedger getCatHedger;
 
-    public CrudService(@Value("${crud-crud.base.url}") String baseUrl, RestClient.Builder restClient) {
-        logger.info("Base URL: {}", baseUrl);
-        this.restClient = restClient
-                .baseUrl(baseUrl)
+    private final Map<String, List<CircuitBreaker>> circuitBreakers;
+
+    private final boolean passthroughValidate;
+
+    private final int streamBufferSize;
+
+    private final Duration streamStallTimeout;
+
+    public CrudService(@Value("${crud-crud.single-flight.enabled:true}") boolean singleFlightEnabled,
+                       @Value("${crud-crud.upstream.max-concurrent-calls:50}") int maxConcurrentCalls,
+                       @Value("${crud-crud.upstream.queue-timeout:500ms}") Duration queueTimeout,
+                       @Value("${crud-crud.upstream.adaptive.enabled:true}") boolean adaptiveLimitEnabled,
+                       @Value("${crud-crud.upstream.adaptive.min-limit:4}") int adaptiveMinLimit,
+                       @Value("${crud-crud.upstream.adaptive.max-limit:50}") int adaptiveMaxLimit,
+                       @Value("${crud-crud.upstream.adaptive.latency-threshold:1s}") Duration adaptiveLatencyThreshold,
+                       @Value("${crud-crud.upstream.adaptive.backoff-ratio:0.9}") double adaptiveBackoffRatio,
+                       @Value("${crud-crud.circuit-breaker.enabled:true}") boolean circuitBreakerEnabled,
+                       @Value("${crud-crud.circuit-breaker.window-size:50}") int circuitBreakerWindowSize,
+                       @Value("${crud-crud.circuit-breaker.minimum-calls:20}") int circuitBreakerMinimumCalls,
+                       @Value("${crud-crud.circuit-breaker.failure-rate-threshold:0.5}") double circuitBreakerFailureRateThreshold,
+                       @Value("${crud-crud.circuit-breaker.open-duration:10s}") Duration circuitBreakerOpenDuration,
+                       @Value("${crud-crud.circuit-breaker.half-open-calls:3}") int circuitBreakerHalfOpenCalls,
+                       @Value("${crud-crud.logging.mode:sampled}") String loggingMode,
+                       @Value("${crud-crud.logging.sample-rate:0.01}") double loggingSampleRate,
+                       @Value("${crud-crud.logging.max-body-length:0}") int loggingMaxBodyLength,
+                       @Value("${crud-crud.hedging.enabled:false}") boolean hedgingEnabled,
+                       @Value("${crud-crud.hedging.percentile:0.95}") double hedgingPercentile,
+                       @Value("${crud-crud.hedging.min-delay:5ms}") Duration hedgingMinDelay,
+                       @Value("${crud-crud.hedging.initial-delay:100ms}") Duration hedgingInitialDelay,
+                       @Value("${crud-crud.hedging.budget-ratio:0.05}") double hedgingBudgetRatio,
+                       @Value("${crud-crud.passthrough.validate:false}") boolean passthroughValidate,
+                       @Value("${crud-crud.stream.buffer-size:256}") int streamBufferSize,
+                       @Value("${crud-crud.stream.stall-timeout:5s}") Duration streamStallTimeout,
+                       @Value("${crud-crud.http.client:apache}") String httpClient,
+                       @Value("${crud-crud.http.max-connections-per-route:50}") int maxConnectionsPerRoute,
+                       UpstreamEndpoints endpoints,
+                       RestClient.Builder restClient,
+                       ObjectProvider<UpstreamRequestFactories> requestFactories,
+                       ObjectMapper objectMapper,
+                       ObjectProvider<MeterRegistry> meterRegistry) {
+        logger.info("Base URLs: {}", endpoints.baseUrls());
+        this.endpoints = endpoints;
+        this.objectMapper = objectMapper;
+        this.singleFlight = new SingleFlight();
+        this.singleFlightEnabled = singleFlightEnabled;
+        this.passthroughValidate = passthroughValidate;
+        this.streamBufferSize = streamBufferSize;
+        this.streamStallTimeout = streamStallTimeout;
+        if ("apache".equals(httpClient) && Math.max(maxConcurrentCalls, adaptiveMaxLimit) > maxConnectionsPerRoute) {
+            // Calls beyond the pool would wait for a connection and fail after connection-request-timeout
+            logger.warn("Capping concurrent upstream calls at crud-crud.http.max-connections-per-route ({})", maxConnectionsPerRoute);
+            maxConcurrentCalls = Math.min(maxConcurrentCalls, maxConnectionsPerRoute);
+            adaptiveMaxLimit = Math.min(adaptiveMaxLimit, maxConnectionsPerRoute);
+            adaptiveMinLimit = Math.min(adaptiveMinLimit, adaptiveMaxLimit);
+        }
+        this.bulkhead = new UpstreamBulkhead(maxConcurrentCalls, queueTimeout, adaptiveLimitEnabled
+                ? new AimdLimit(adaptiveMinLimit, adaptiveMaxLimit, adaptiveLatencyThreshold, adaptiveBackoffRatio)
+                : null);
+        var registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.metrics = new UpstreamMetrics(registry);
+        this.circuitBreakers = new HashMap<>();
+        if (circuitBreakerEnabled) {
+            for (var operation : List.of("create", "get", "update", "delete", "list", "stream")) {
+                // One breaker per endpoint, so that a failing endpoint does not cut off the cats held by the others
+                var operationBreakers = new ArrayList<CircuitBreaker>(endpoints.size());
+                for (int endpoint = 0; endpoint < endpoints.size(); endpoint++) {
+                    var circuitBreaker = new CircuitBreaker(circuitBreakerWindowSize, circuitBreakerMinimumCalls,
+                            circuitBreakerFailureRateThreshold, circuitBreakerOpenDuration, circuitBreakerHalfOpenCalls);
+                    operationBreakers.add(circuitBreaker);
+                    Gauge.builder("crud.upstream.circuit-breaker.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                            .description("Circuit breaker state per operation and endpoint (0 closed, 1 open, 2 half-open)")
+                            .tag("operation", operation)
+                            .tag("endpoint", String.valueOf(endpoint))
+                            .register(registry);
+                }
+                circuitBreakers.put(operation, operationBreakers);
+            }
+        }
+        this.getCatHedger = hedgingEnabled
+                ? new Hedger("get", hedgingPercentile, hedgingMinDelay, hedgingInitialDelay, hedgingBudgetRatio, registry)
+                : null;
+        Gauge.builder("crud.upstream.in-flight", bulkhead, UpstreamBulkhead::inFlight)
+                .description("Calls to the cat API currently in flight")
+                .register(registry);
+        Gauge.builder("crud.upstream.limit", bulkhead, UpstreamBulkhead::limit)
+                .description("Maximum concurrent calls to the cat API")
+                .register(registry);
+        restClient
+                .requestInterceptor(requestLoggingInterceptor(loggingMode, loggingSampleRate, loggingMaxBodyLength))
                 .requestInterceptor((request, body, execution) -> {
-                    var requestBody = new String(body);
-                    if (requestBody.isEmpty()) {
-                        logger.info("{}: Request URI: {}", request.getMethod().name(), request.getURI());
-                    } else {
-                        logger.info("{}: Request URI: {}, Request Body: {}", request.getMethod().name(), request.getURI(), requestBody);
+                    var event = new UpstreamExchangeEvent();
+                    if (!event.isEnabled()) {
+                        return execution.execute(request, body);
                     }
-                    return execution.execute(request, body);
-                })
-                .build();
+                    event.begin();
+                    event.method = request.getMethod().name();
+                    event.uri = request.getURI().toString();
+                    try {
+                        var response = execution.execute(request, body);
+                        event.status = response.getStatusCode().value();
+                        return response;
+                    } catch (IOException | RuntimeException exception) {
+                        event.failure = exception.getClass().getSimpleName();
+                        throw exception;
+                    } finally {
+                        event.commit();
+                    }
+                });
+        var requestFactoryPerEndpoint = requestFactories.getIfAvailable();
+        var clients = new ArrayList<RestClient>(endpoints.size());
+        for (int endpoint = 0; endpoint < endpoints.size(); endpoint++) {
+            var builder = restClient.clone().baseUrl(endpoints.baseUrls().get(endpoint));
+            if (endpoint > 0 && requestFactoryPerEndpoint != null) {
+                builder.requestFactory(requestFactoryPerEndpoint.create(String.valueOf(endpoint)));
+            }
+            clients.add(builder.build());
+        }
+        this.restClients = List.copyOf(clients);
+    }
+
+    private ClientHttpRequestInterceptor requestLoggingInterceptor(String mode, double sampleRate, int maxBodyLength) {
+        return switch (mode) {
+            case "full" -> new FullRequestLoggingInterceptor(logger);
+            case "sampled" -> new SampledRequestLoggingInterceptor(logger, sampleRate, maxBodyLength);
+            case "off" -> (request, body, execution) -> execution.execute(request, body);
+            default -> throw new IllegalArgumentException("Unknown crud-crud.logging.mode: " + mode);
+        };
     }
 
     public CatResponseDTO createCat(CatRequestDTO catRequestDTO) {
-        return restClient.post()
+        var endpoint = endpoints.choose();
+        return endpoints.qualify(endpoint, call("create", endpoint, () -> restClients.get(endpoint).post()
                 .uri("/cats")
                 .body(catRequestDTO)
                 .retrieve()
-                .onStatus(getHttpStatusCodeIsErrorPredicate(), (request, response) -> logUnknownErrorAndThrowAppropriatedException(request))
-                .body(CatResponseDTO.class);
+                .onStatus(getHttpStatusCodeIsErrorPredicate(), (request, response) -> logErrorStatusAndThrowAppropriatedException(request, response.getStatusCode()))
+                .body(CatResponseDTO.class)));
+    }
+
+    /**
+     * A client error is the upstream refusing this request, which says nothing about its health, except for 408 and 429
+     * that are the upstream shedding load.
+     */
+    private void logErrorStatusAndThrowAppropriatedException(HttpRequest request, HttpStatusCode status) {
+        if (status.is4xxClientError() && status.value() != 408 && status.value() != 429) {
+            logger.error("{}: The cat API rejected the cat request with status {}. Request URI: {}", request.getMethod().name(), status.value(), request.getURI());
+            throw new CatRequestRejectedException();
+        }
+        logUnknownErrorAndThrowAppropriatedException(request);
     }
 
     private void logUnknownErrorAndThrowAppropriatedException(HttpRequest request) {
@@ -54,12 +220,104 @@ public class CrudService {
     }
 
     public CatResponseDTO getCat(String id) {
-        return restClient.get()
-                .uri("/cats/{id}", id)
+        var route = endpoints.route(id);
+        return coalesce("GET /cats/" + id, () -> endpoints.qualify(route.endpoint(), call("get", getCatHedger, route.endpoint(), () -> restClients.get(route.endpoint()).get()
+                .uri("/cats/{id}", route.id())
+                .retrieve()
+                .onStatus(getHttpStatusCodeNotFoundPredicate(), (request, response) -> logNotFoundErrorRequestAndThrowAppropriatedException(request))
+                .onStatus(getHttpStatusCodeIsErrorPredicate(), (request, response) -> logErrorStatusAndThrowAppropriatedException(request, response.getStatusCode()))
+                .body(CatResponseDTO.class))));
+    }
+
+    /**
+     * Returns the upstream JSON for a cat as-is, without binding it to {@link CatResponseDTO}, so it can be copied to
+     * the client without a Jackson round trip. With more than one endpoint the id in the body has to be qualified, so
+     * the body is rebound after all.
+     */
+    public byte[] getCatRaw(String id) {
+        var route = endpoints.route(id);
+        return coalesce("RAW GET /cats/" + id, () -> qualifiedRaw(route.endpoint(), call("get", getCatHedger, route.endpoint(), () -> validated(restClients.get(route.endpoint()).get()
+                .uri("/cats/{id}", route.id())
+                .accept(MediaType.APPLICATION_JSON)
                 .retrieve()
                 .onStatus(getHttpStatusCodeNotFoundPredicate(), (request, response) -> logNotFoundErrorRequestAndThrowAppropriatedException(request))
-                .onStatus(getHttpStatusCodeIsErrorPredicate(), (request, response) -> logUnknownErrorAndThrowAppropriatedException(request))
-                .body(CatResponseDTO.class);
+                .onStatus(getHttpStatusCodeIsErrorPredicate(), (request, response) -> logErrorStatusAndThrowAppropriatedException(request, response.getStatusCode()))
+                .body(byte[].class), "/cats/" + id))));
+    }
+
+    private byte[] qualifiedRaw(int endpoint, byte[] body) {
+        if (endpoints.size() == 1 || body == null) {
+            return body;
+        }
+        try {
+            return objectMapper.writeValueAsBytes(endpoints.qualify(endpoint, objectMapper.readValue(body, CatResponseDTO.class)));
+        } catch (IOException exception) {
+            logger.error("GET: The cat API returned malformed JSON. Endpoint: {}", endpoint);
+            throw new CatUnknownErrorException();
+        }
+    }
+
+    private <T> T coalesce(String key, Supplier<T> call) {
+        return singleFlightEnabled ? singleFlight.execute(key, call) : call.get();
+    }
+
+    private <T> T call(String operation, int endpoint, Supplier<T> exchange) {
+        return call(operation, null, endpoint, exchange);
+    }
+
+    private <T> T call(String operation, Hedger hedger, int endpoint, Supplier<T> exchange) {
+        return call(operation, hedger, endpoint, true, exchange);
+    }
+
+    /**
+     * With {@code timed} false the call's duration is left out of the adaptive limit and the endpoint latency, which
+     * only make sense for calls paced by the upstream.
+     */
+    private <T> T call(String operation, Hedger hedger, int endpoint, boolean timed, Supplier<T> exchange) {
+        Supplier<T> limited = () -> bulkhead.execute(() -> endpoints.record(endpoint, timed, () -> leased(exchange)), timed);
+        Supplier<T> attempt = hedger == null ? limited : () -> hedger.execute(limited);
+        var circuitBreaker = circuitBreaker(operation, endpoint);
+        return metrics.record(operation, circuitBreaker == null ? attempt : () -> circuitBreaker.execute(attempt));
+    }
+
+    /**
+     * The guards below are shared with {@link AsyncCrudService}, so that both clients draw on one concurrency limit and
+     * trip the same breakers.
+     */
+    UpstreamBulkhead bulkhead() {
+        return bulkhead;
+    }
+
+    UpstreamMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Shared with {@link AsyncCrudService} too, so that blocking and asynchronous reads of the same resource coalesce
+     * into one upstream call. {@code null} when single-flight is disabled.
+     */
+    SingleFlight singleFlight() {
+        return singleFlightEnabled ? singleFlight : null;
+    }
+
+    CircuitBreaker circuitBreaker(String operation, int endpoint) {
+        var operationBreakers = circuitBreakers.get(operation);
+        return operationBreakers == null ? null : operationBreakers.get(endpoint);
+    }
+
+    /**
+     * Running out of pooled connections means this instance has more calls in flight than connections, not that the
+     * upstream failed, so it is answered like a full bulkhead rather than as an upstream error.
+     */
+    private static <T> T leased(Supplier<T> exchange) {
+        try {
+            return exchange.get();
+        } catch (ResourceAccessException exception) {
+            if (exception.getCause() instanceof ConnectionRequestTimeoutException) {
+                throw new CatUpstreamBusyException();
+            }
+            throw exception;
+        }
     }
 
     private void logNotFoundErrorRequestAndThrowAppropriatedException(HttpRequest request) {
@@ -68,22 +326,24 @@ public class CrudService {
     }
 
     public void updateCat(String id, CatRequestDTO catRequestDTO) {
-        restClient.put()
-                .uri("/cats/{id}", id)
+        var route = endpoints.route(id);
+        call("update", route.endpoint(), () -> restClients.get(route.endpoint()).put()
+                .uri("/cats/{id}", route.id())
                 .body(catRequestDTO)
                 .retrieve()
                 .onStatus(getHttpStatusCodeNotFoundPredicate(), (request, response) -> logNotFoundErrorRequestAndThrowAppropriatedException(request))
-                .onStatus(getHttpStatusCodeIsErrorPredicate(), (request, response) -> logUnknownErrorAndThrowAppropriatedException(request))
-                .toBodilessEntity();
+                .onStatus(getHttpStatusCodeIsErrorPredicate(), (request, response) -> logErrorStatusAndThrowAppropriatedException(request, response.getStatusCode()))
+                .toBodilessEntity());
     }
 
     public void deleteCat(String id) {
-        restClient.delete()
-                .uri("/cats/{id}", id)
+        var route = endpoints.route(id);
+        call("delete", route.endpoint(), () -> restClients.get(route.endpoint()).delete()
+                .uri("/cats/{id}", route.id())
                 .retrieve()
                 .onStatus(getHttpStatusCodeNotFoundPredicate(), (request, response) -> logNotFoundErrorRequestAndThrowAppropriatedException(request))
-                .onStatus(getHttpStatusCodeIsErrorPredicate(), (request, response) -> logUnknownErrorAndThrowAppropriatedException(request))
-                .toBodilessEntity();
+                .onStatus(getHttpStatusCodeIsErrorPredicate(), (request, response) -> logErrorStatusAndThrowAppropriatedException(request, response.getStatusCode()))
+                .toBodilessEntity());
     }
 
     private static Predicate<HttpStatusCode> getHttpStatusCodeIsErrorPredicate() {
@@ -94,12 +354,146 @@ public class CrudService {
         return status -> status.value() == 404;
     }
 
+    /**
+     * Lists the cats of every endpoint, querying the endpoints in parallel when there is more than one.
+     */
     public List<CatResponseDTO> listCats() {
-        return restClient.get()
+        return coalesce("GET /cats", () -> {
+            if (endpoints.size() == 1) {
+                return call("list", 0, () -> fetchCats(0));
+            }
+            var futures = new ArrayList<Future<List<CatResponseDTO>>>(endpoints.size());
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int endpoint = 0; endpoint < endpoints.size(); endpoint++) {
+                    var index = endpoint;
+                    futures.add(executor.submit(() -> call("list", index, () -> fetchCats(index))));
+                }
+            }
+            var cats = new ArrayList<CatResponseDTO>();
+            for (var future : futures) {
+                cats.addAll(resultOf(future));
+            }
+            return Collections.unmodifiableList(cats);
+        });
+    }
+
+    private List<CatResponseDTO> fetchCats(int endpoint) {
+        List<CatResponseDTO> cats = restClients.get(endpoint).get()
                 .uri("/cats")
                 .retrieve()
-                .onStatus(getHttpStatusCodeIsErrorPredicate(), (request, response) -> logUnknownErrorAndThrowAppropriatedException(request))
+                .onStatus(getHttpStatusCodeIsErrorPredicate(), (request, response) -> logErrorStatusAndThrowAppropriatedException(request, response.getStatusCode()))
                 .body(new ParameterizedTypeReference<>() {
                 });
+        if (cats == null) {
+            return List.of();
+        }
+        return endpoints.size() == 1
+                ? Collections.unmodifiableList(cats)
+                : cats.stream().map(cat -> endpoints.qualify(endpoint, cat)).toList();
+    }
+
+    private static <T> T resultOf(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CatUnknownErrorException();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new CatUnknownErrorException();
+        }
+    }
+
+    /**
+     * With more than one endpoint the ids in the body have to be qualified, so this falls back to serialising
+     * {@link #listCats()}.
+     */
+    public byte[] listCatsRaw() {
+        if (endpoints.size() > 1) {
+            try {
+                return objectMapper.writeValueAsBytes(listCats());
+            } catch (IOException exception) {
+                throw new CatUnknownErrorException();
+            }
+        }
+        return coalesce("RAW GET /cats", () -> call("list", 0, () -> {
+            var cats = validated(restClients.getFirst().get()
+                    .uri("/cats")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .onStatus(getHttpStatusCodeIsErrorPredicate(), (request, response) -> logErrorStatusAndThrowAppropriatedException(request, response.getStatusCode()))
+                    .body(byte[].class), "/cats");
+            return cats == null ? EMPTY_JSON_ARRAY.clone() : cats;
+        }));
+    }
+
+    private byte[] validated(byte[] body, String path) {
+        if (!passthroughValidate || body == null) {
+            return body;
+        }
+        try (var parser = objectMapper.createParser(body)) {
+            while (parser.nextToken() != null) {
+                // Tokenising the whole body is enough to reject malformed JSON
+            }
+        } catch (IOException exception) {
+            logger.error("GET: The cat API returned malformed JSON. Request path: {}", path);
+            throw new CatUnknownErrorException();
+        }
+        return body;
+    }
+
+    public void streamCats(Consumer<CatResponseDTO> consumer) {
+        for (int endpoint = 0; endpoint < endpoints.size(); endpoint++) {
+            streamCats(endpoint, consumer);
+        }
+    }
+
+    /**
+     * Reads the endpoint's cats on a virtual thread and hands them to the consumer on the caller's thread. The consumer
+     * usually writes to a client, so its pace and failures must not count against the upstream: the upstream call
+     * ends without a failure when the consumer fails, or stalls for longer than {@code crud-crud.stream.stall-timeout},
+     * and its duration does not feed the adaptive limit or the endpoint latency.
+     */
+    private void streamCats(int endpoint, Consumer<CatResponseDTO> consumer) {
+        var handoff = new StreamHandoff<CatResponseDTO>(streamBufferSize, streamStallTimeout);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var upstream = executor.submit(() -> {
+                try {
+                    return call("stream", null, endpoint, false, () -> readCats(endpoint, handoff));
+                } finally {
+                    handoff.complete();
+                }
+            });
+            if (!handoff.drainTo(consumer)) {
+                logger.warn("GET: Stopped streaming cats from endpoint {} after the client stalled for {} ms",
+                        endpoint, streamStallTimeout.toMillis());
+                throw new CatUnknownErrorException();
+            }
+            resultOf(upstream);
+        }
+    }
+
+    private Void readCats(int endpoint, StreamHandoff<CatResponseDTO> handoff) {
+        return restClients.get(endpoint).get()
+                .uri("/cats")
+                .exchange((request, response) -> {
+                    if (getHttpStatusCodeIsErrorPredicate().test(response.getStatusCode())) {
+                        logErrorStatusAndThrowAppropriatedException(request, response.getStatusCode());
+                    }
+                    try (var parser = objectMapper.createParser(response.getBody())) {
+                        var token = parser.nextToken();
+                        if (token != null && token != JsonToken.START_ARRAY) {
+                            logUnknownErrorAndThrowAppropriatedException(request);
+                        }
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            if (!handoff.offer(endpoints.qualify(endpoint, objectMapper.readValue(parser, CatResponseDTO.class)))) {
+                                break;
+                            }
+                        }
+                    }
+                    return null;
+                });
     }
-}
\ No newline at end of file
+}
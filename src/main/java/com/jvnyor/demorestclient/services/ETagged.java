@@ -0,0 +1,7 @@
+package com.jvnyor.demorestclient.services;
+
+/**
+ * A value together with the strong entity tag of its JSON representation.
+ */
+public record ETagged<T>(T body, String eTag) {
+}
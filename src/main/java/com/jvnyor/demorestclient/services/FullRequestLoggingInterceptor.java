@@ -0,0 +1,29 @@
+package com.jvnyor.demorestclient.services;
+
+import org.slf4j.Logger;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+class FullRequestLoggingInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Logger logger;
+
+    FullRequestLoggingInterceptor(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        var requestBody = new String(body);
+        if (requestBody.isEmpty()) {
+            logger.info("{}: Request URI: {}", request.getMethod().name(), request.getURI());
+        } else {
+            logger.info("{}: Request URI: {}, Request Body: {}", request.getMethod().name(), request.getURI(), requestBody);
+        }
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,141 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+class Hedger {
+
+    private static final long TOKEN = 1_000;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LatencyTracker latencyTracker;
+
+    private final long minDelayNanos;
+
+    private final long tokensPerCall;
+
+    private final long maxTokens;
+
+    private final AtomicLong tokens = new AtomicLong();
+
+    private final Counter hedges;
+
+    private final Counter wins;
+
+    private final Counter budgetExhausted;
+
+    Hedger(String operation, double percentile, Duration minDelay, Duration initialDelay, double budgetRatio, MeterRegistry meterRegistry) {
+        this.latencyTracker = new LatencyTracker(1024, percentile, initialDelay.toNanos());
+        this.minDelayNanos = minDelay.toNanos();
+        this.tokensPerCall = Math.round(budgetRatio * TOKEN);
+        this.maxTokens = 10 * TOKEN;
+        this.hedges = Counter.builder("crud.upstream.hedge.requests")
+                .description("Hedged requests sent to the cat API")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        this.wins = Counter.builder("crud.upstream.hedge.wins")
+                .description("Hedged requests that answered before the original request")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        this.budgetExhausted = Counter.builder("crud.upstream.hedge.budget-exhausted")
+                .description("Hedged requests skipped because the hedging budget was exhausted")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    <T> T execute(Supplier<T> call) {
+        depositToken();
+        var completionService = new ExecutorCompletionService<T>(executor);
+        var attempts = new ArrayList<Future<T>>(2);
+        try {
+            var primary = completionService.submit(() -> timed(call));
+            attempts.add(primary);
+            var first = completionService.poll(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+            if (first != null) {
+                return resultOf(first);
+            }
+            if (!withdrawToken()) {
+                budgetExhausted.increment();
+                return resultOf(primary);
+            }
+            hedges.increment();
+            var hedge = completionService.submit(() -> timed(call));
+            attempts.add(hedge);
+            first = completionService.take();
+            if (isRetryableFailure(first)) {
+                first = completionService.take();
+            }
+            if (first == hedge && !isFailure(hedge)) {
+                wins.increment();
+            }
+            return resultOf(first);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the cat API");
+        } finally {
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    private <T> T timed(Supplier<T> call) {
+        var start = System.nanoTime();
+        var result = call.get();
+        latencyTracker.record(System.nanoTime() - start);
+        return result;
+    }
+
+    private long hedgeDelayNanos() {
+        return Math.max(minDelayNanos, latencyTracker.percentileNanos());
+    }
+
+    private void depositToken() {
+        tokens.getAndUpdate(current -> Math.min(maxTokens, current + tokensPerCall));
+    }
+
+    private boolean withdrawToken() {
+        var current = tokens.get();
+        while (current >= TOKEN) {
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+            current = tokens.get();
+        }
+        return false;
+    }
+
+    private static boolean isFailure(Future<?> attempt) {
+        return attempt.state() == Future.State.FAILED;
+    }
+
+    private static boolean isRetryableFailure(Future<?> attempt) {
+        return isFailure(attempt) && !(attempt.exceptionNow() instanceof CatNotFoundException);
+    }
+
+    private static <T> T resultOf(Future<T> attempt) throws InterruptedException {
+        try {
+            return attempt.get();
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (exception.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.jvnyor.demorestclient.services;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+class LatencyTracker {
+
+    private static final int RECOMPUTE_INTERVAL = 64;
+
+    private final AtomicLongArray samples;
+
+    // A long, so that it does not wrap to negative counts after 2^31 samples
+    private final AtomicLong recorded = new AtomicLong();
+
+    private final double percentile;
+
+    private final long fallbackNanos;
+
+    private volatile long percentileNanos;
+
+    LatencyTracker(int capacity, double percentile, long fallbackNanos) {
+        this.samples = new AtomicLongArray(capacity);
+        this.percentile = percentile;
+        this.fallbackNanos = fallbackNanos;
+        this.percentileNanos = fallbackNanos;
+    }
+
+    void record(long nanos) {
+        var count = recorded.getAndIncrement();
+        samples.set((int) (count % samples.length()), nanos);
+        if ((count + 1) % RECOMPUTE_INTERVAL == 0) {
+            recompute((int) Math.min(count + 1, samples.length()));
+        }
+    }
+
+    long percentileNanos() {
+        return percentileNanos;
+    }
+
+    private void recompute(int size) {
+        if (size < RECOMPUTE_INTERVAL) {
+            percentileNanos = fallbackNanos;
+            return;
+        }
+        var snapshot = new long[size];
+        for (int i = 0; i < size; i++) {
+            snapshot[i] = samples.get(i);
+        }
+        Arrays.sort(snapshot);
+        percentileNanos = snapshot[Math.min(size - 1, (int) Math.ceil(percentile * size) - 1)];
+    }
+}
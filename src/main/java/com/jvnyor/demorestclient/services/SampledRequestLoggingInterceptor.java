@@ -0,0 +1,53 @@
+package com.jvnyor.demorestclient.services;
+
+import org.slf4j.Logger;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+class SampledRequestLoggingInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Logger logger;
+
+    private final double sampleRate;
+
+    private final int maxBodyLength;
+
+    SampledRequestLoggingInterceptor(Logger logger, double sampleRate, int maxBodyLength) {
+        this.logger = logger;
+        this.sampleRate = sampleRate;
+        this.maxBodyLength = maxBodyLength;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (logger.isInfoEnabled() && isSampled()) {
+            if (body.length == 0 || maxBodyLength == 0) {
+                logger.info("{}: Request URI: {}", request.getMethod(), request.getURI());
+            } else {
+                logger.info("{}: Request URI: {}, Request Body: {}", request.getMethod(), request.getURI(), new TruncatedBody(body, maxBodyLength));
+            }
+        }
+        return execution.execute(request, body);
+    }
+
+    private boolean isSampled() {
+        return sampleRate >= 1.0 || (sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private record TruncatedBody(byte[] body, int maxLength) {
+
+        @Override
+        public String toString() {
+            if (body.length <= maxLength) {
+                return new String(body, StandardCharsets.UTF_8);
+            }
+            return new String(body, 0, maxLength, StandardCharsets.UTF_8) + "... (" + body.length + " bytes)";
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.jvnyor.demorestclient.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+class SingleFlight {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    <T> T execute(String key, Supplier<T> call) {
+        var flight = new CompletableFuture<Object>();
+        var leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            return (T) await(leader);
+        }
+        try {
+            var result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error exception) {
+            flight.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Like {@link #execute(String, Supplier)} for a call that completes asynchronously: nothing waits, and blocking and
+     * asynchronous callers of the same key share one flight. A follower gets its own future, completed with the
+     * leader's result or with its exception, unwrapped, so that cancelling it leaves the leader alone.
+     */
+    <T> CompletableFuture<T> executeAsync(String key, Supplier<CompletableFuture<T>> call) {
+        var flight = new CompletableFuture<Object>();
+        var leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            return follow(leader);
+        }
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error exception) {
+            flight.completeExceptionally(exception);
+            inFlight.remove(key, flight);
+            throw exception;
+        }
+        result.whenComplete((value, exception) -> {
+            if (exception == null) {
+                flight.complete(value);
+            } else {
+                flight.completeExceptionally(unwrap(exception));
+            }
+            inFlight.remove(key, flight);
+        });
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> CompletableFuture<T> follow(CompletableFuture<Object> leader) {
+        var follower = new CompletableFuture<T>();
+        leader.whenComplete((value, exception) -> {
+            if (exception == null) {
+                follower.complete((T) value);
+            } else {
+                follower.completeExceptionally(unwrap(exception));
+            }
+        });
+        return follower;
+    }
+
+    private static Throwable unwrap(Throwable exception) {
+        return exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+    }
+
+    private static Object await(CompletableFuture<Object> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (exception.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.services.exceptions.CatUnknownErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bounded hand-off between a producer reading an upstream response and a consumer writing to a client, so that the
+ * client's pace and failures stay on the consumer's side. The producer waits at most {@code stallTimeout} for room:
+ * a client that stalls longer, or a consumer that fails, makes the producer stop reading instead of holding its
+ * upstream connection.
+ */
+class StreamHandoff<T> {
+
+    private static final Object END = new Object();
+
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final BlockingQueue<Object> queue;
+
+    private final long stallNanos;
+
+    private volatile boolean completed;
+
+    private volatile boolean abandoned;
+
+    StreamHandoff(int capacity, Duration stallTimeout) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.stallNanos = stallTimeout.toNanos();
+    }
+
+    /**
+     * Returns {@code false} once the consumer failed or stalled, telling the producer to stop.
+     */
+    boolean offer(T item) {
+        if (abandoned) {
+            return false;
+        }
+        try {
+            if (queue.offer(item, stallNanos, TimeUnit.NANOSECONDS)) {
+                return !abandoned;
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        abandoned = true;
+        return false;
+    }
+
+    /**
+     * Called by the producer once it stopped, whether it read everything or not.
+     */
+    void complete() {
+        completed = true;
+        // Never blocks: with a full queue the consumer notices the flag once it has drained it
+        queue.offer(END);
+    }
+
+    /**
+     * Hands every item to the consumer until the producer completes. Returns {@code false} if the producer gave up on
+     * a stalled consumer, so that the items received are not the whole stream.
+     */
+    @SuppressWarnings("unchecked")
+    boolean drainTo(Consumer<? super T> consumer) {
+        try {
+            while (true) {
+                var item = queue.poll(POLL_NANOS, TimeUnit.NANOSECONDS);
+                if (item == END || item == null && completed && queue.isEmpty()) {
+                    return !abandoned;
+                }
+                if (item != null) {
+                    consumer.accept((T) item);
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            abandon();
+            throw new CatUnknownErrorException();
+        } catch (RuntimeException | Error exception) {
+            abandon();
+            throw exception;
+        }
+    }
+
+    private void abandon() {
+        abandoned = true;
+        // Frees a producer waiting for room, which then sees the flag
+        queue.clear();
+    }
+}
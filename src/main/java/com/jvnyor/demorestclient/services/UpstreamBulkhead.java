@@ -0,0 +1,140 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatRequestRejectedException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamBusyException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+class UpstreamBulkhead {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition permitReleased = lock.newCondition();
+
+    private final Duration queueTimeout;
+
+    private final AimdLimit adaptiveLimit;
+
+    private volatile int limit;
+
+    private int inFlight;
+
+    UpstreamBulkhead(int limit, Duration queueTimeout) {
+        this(limit, queueTimeout, null);
+    }
+
+    UpstreamBulkhead(int limit, Duration queueTimeout, AimdLimit adaptiveLimit) {
+        this.limit = limit;
+        this.queueTimeout = queueTimeout;
+        this.adaptiveLimit = adaptiveLimit;
+    }
+
+    <T> T execute(Supplier<T> call) {
+        return execute(call, true);
+    }
+
+    /**
+     * With {@code timed} false the call's duration says nothing about the upstream, as for a stream paced by its
+     * client, so only a failure moves the adaptive limit.
+     */
+    <T> T execute(Supplier<T> call, boolean timed) {
+        acquire();
+        var start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return call.get();
+        } catch (RuntimeException | Error exception) {
+            failure = exception;
+            throw exception;
+        } finally {
+            // An interrupted call was abandoned by its caller, not dropped by the upstream
+            release(start, timed, Thread.currentThread().isInterrupted() ? null : failure);
+        }
+    }
+
+    /**
+     * Takes a permit without waiting, for callers that must not block such as the reactive client: a full bulkhead
+     * fails fast with {@link CatUpstreamBusyException}. The permit is handed back with {@link #release(long, boolean, Throwable)}.
+     */
+    void tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight >= limit) {
+                throw new CatUpstreamBusyException();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands back a permit taken with {@link #tryAcquire()}, with the exception the call failed with or {@code null}.
+     */
+    void release(long startNanos, boolean timed, Throwable exception) {
+        if (exception instanceof CatUpstreamUnavailableException) {
+            // Turned away before reaching the upstream, for want of a pooled connection: as in UpstreamEndpoints, this
+            // says nothing about the upstream's capacity, so it moves the adaptive limit neither way
+            release(System.nanoTime() - startNanos, false, false);
+            return;
+        }
+        var dropped = exception != null
+                && !(exception instanceof CatNotFoundException || exception instanceof CatRequestRejectedException);
+        release(System.nanoTime() - startNanos, dropped, timed);
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    private void acquire() {
+        var remainingNanos = queueTimeout.toNanos();
+        lock.lock();
+        try {
+            while (inFlight >= limit) {
+                if (remainingNanos <= 0) {
+                    throw new CatUpstreamBusyException();
+                }
+                remainingNanos = permitReleased.awaitNanos(remainingNanos);
+            }
+            inFlight++;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new CatUpstreamBusyException();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long latencyNanos, boolean dropped, boolean timed) {
+        lock.lock();
+        try {
+            var previousLimit = limit;
+            if (adaptiveLimit != null && (timed || dropped)) {
+                limit = adaptiveLimit.update(previousLimit, inFlight, latencyNanos, dropped);
+            }
+            inFlight--;
+            if (limit > previousLimit) {
+                permitReleased.signalAll();
+            } else {
+                permitReleased.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
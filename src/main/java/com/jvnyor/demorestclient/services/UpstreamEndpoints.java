@@ -0,0 +1,273 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatRequestRejectedException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * The upstream cat API endpoints (base URLs, typically one per API key) that cats are sharded across.
+ * <p>
+ * A cat lives on the endpoint that created it, so with more than one endpoint the id handed out to clients is the
+ * upstream id prefixed with the endpoint index ({@code "1-60f1b3..."}), and every call on that cat is routed back to
+ * that endpoint. Unprefixed ids belong to the first endpoint, so ids issued before more endpoints were added keep
+ * working; endpoints must therefore only ever be appended to {@code crud-crud.base.urls}, never reordered.
+ * <p>
+ * New cats are placed with the power of two choices: two random healthy endpoints are compared by their EWMA latency
+ * weighted by the calls they have in flight, and the cheaper one wins. An endpoint that fails
+ * {@code consecutive-failures} calls in a row is ejected from placement for {@code ejection-duration}; calls on cats
+ * it already holds still go to it, as no other endpoint has them.
+ */
+@Service
+public class UpstreamEndpoints {
+
+    /**
+     * Weight of the newest latency sample in the moving average.
+     */
+    private static final double EWMA_ALPHA = 0.3;
+
+    private static final char ID_SEPARATOR = '-';
+
+    private final Logger logger = LoggerFactory.getLogger(UpstreamEndpoints.class);
+
+    private final List<String> baseUrls;
+
+    private final Endpoint[] endpoints;
+
+    private final int ejectionThreshold;
+
+    private final long ejectionNanos;
+
+    private final LongSupplier clock;
+
+    @Autowired
+    public UpstreamEndpoints(@Value("${crud-crud.base.urls:${crud-crud.base.url}}") List<String> baseUrls,
+                             @Value("${crud-crud.upstream.ejection.consecutive-failures:5}") int ejectionThreshold,
+                             @Value("${crud-crud.upstream.ejection.duration:30s}") Duration ejectionDuration,
+                             ObjectProvider<MeterRegistry> meterRegistry) {
+        this(baseUrls, ejectionThreshold, ejectionDuration, System::nanoTime);
+        var registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        for (int i = 0; i < endpoints.length; i++) {
+            Gauge.builder("crud.upstream.endpoint.latency", endpoints[i], endpoint -> endpoint.ewmaNanos() / 1e6)
+                    .description("Moving average latency of calls to the cat API endpoint, in milliseconds")
+                    .tag("endpoint", String.valueOf(i))
+                    .register(registry);
+            var index = i;
+            Gauge.builder("crud.upstream.endpoint.ejected", this, self -> self.ejected(index) ? 1 : 0)
+                    .description("Whether the cat API endpoint is ejected from placing new cats")
+                    .tag("endpoint", String.valueOf(i))
+                    .register(registry);
+        }
+    }
+
+    UpstreamEndpoints(List<String> baseUrls, int ejectionThreshold, Duration ejectionDuration, LongSupplier clock) {
+        if (baseUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one cat API base URL is required");
+        }
+        this.baseUrls = List.copyOf(baseUrls);
+        this.endpoints = new Endpoint[baseUrls.size()];
+        for (int i = 0; i < endpoints.length; i++) {
+            endpoints[i] = new Endpoint(clock.getAsLong());
+        }
+        this.ejectionThreshold = ejectionThreshold;
+        this.ejectionNanos = ejectionDuration.toNanos();
+        this.clock = clock;
+    }
+
+    public List<String> baseUrls() {
+        return baseUrls;
+    }
+
+    int size() {
+        return endpoints.length;
+    }
+
+    /**
+     * Picks the endpoint to create a new cat on.
+     */
+    int choose() {
+        if (endpoints.length == 1) {
+            return 0;
+        }
+        var now = clock.getAsLong();
+        var healthy = new int[endpoints.length];
+        var count = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            if (!endpoints[i].ejectedAt(now)) {
+                healthy[count++] = i;
+            }
+        }
+        if (count == 0) {
+            // Every endpoint is ejected: placing the cat somewhere beats failing the request outright
+            for (int i = 0; i < endpoints.length; i++) {
+                healthy[i] = i;
+            }
+            count = endpoints.length;
+        }
+        if (count == 1) {
+            return healthy[0];
+        }
+        var random = ThreadLocalRandom.current();
+        var first = random.nextInt(count);
+        var second = random.nextInt(count - 1);
+        if (second >= first) {
+            second++;
+        }
+        return endpoints[healthy[first]].cost() <= endpoints[healthy[second]].cost() ? healthy[first] : healthy[second];
+    }
+
+    /**
+     * Resolves a client-facing cat id to the endpoint holding the cat and its id on that endpoint.
+     */
+    Route route(String id) {
+        if (endpoints.length > 1) {
+            var separator = id.indexOf(ID_SEPARATOR);
+            if (separator > 0) {
+                try {
+                    var index = Integer.parseInt(id, 0, separator, 10);
+                    if (index >= 0 && index < endpoints.length) {
+                        return new Route(index, id.substring(separator + 1));
+                    }
+                } catch (NumberFormatException exception) {
+                    // Not one of our prefixes, so an id issued before sharding
+                }
+            }
+        }
+        return new Route(0, id);
+    }
+
+    /**
+     * Turns the id of a cat on the given endpoint into the id handed out to clients.
+     */
+    String qualify(int endpoint, String upstreamId) {
+        return endpoints.length == 1 || upstreamId == null ? upstreamId : String.valueOf(endpoint) + ID_SEPARATOR + upstreamId;
+    }
+
+    CatResponseDTO qualify(int endpoint, CatResponseDTO cat) {
+        return endpoints.length == 1 || cat == null
+                ? cat
+                : new CatResponseDTO(qualify(endpoint, cat._id()), cat.name(), cat.color(), cat.weight());
+    }
+
+    /**
+     * Runs a call on the given endpoint, feeding its latency and outcome into placement and ejection.
+     */
+    <T> T record(int endpoint, Supplier<T> call) {
+        return record(endpoint, true, call);
+    }
+
+    /**
+     * With {@code timed} false the call only counts towards ejection, not towards the endpoint's latency, as for a
+     * stream paced by its client.
+     */
+    <T> T record(int endpoint, boolean timed, Supplier<T> call) {
+        var start = begin(endpoint);
+        Throwable failure = null;
+        try {
+            return call.get();
+        } catch (RuntimeException | Error exception) {
+            failure = exception;
+            throw exception;
+        } finally {
+            end(endpoint, start, timed, failure);
+        }
+    }
+
+    long begin(int endpoint) {
+        endpoints[endpoint].inFlight.incrementAndGet();
+        return clock.getAsLong();
+    }
+
+    /**
+     * Ends a call started with {@link #begin(int)}, with the exception it failed with or {@code null}.
+     */
+    void end(int endpoint, long startNanos, boolean timed, Throwable exception) {
+        if (exception instanceof CatUpstreamUnavailableException) {
+            // Turned away before reaching the endpoint, for want of a pooled connection
+            end(endpoint, startNanos, false, false);
+        } else {
+            end(endpoint, startNanos, timed,
+                    exception != null && !(exception instanceof CatNotFoundException || exception instanceof CatRequestRejectedException));
+        }
+    }
+
+    private void end(int endpoint, long startNanos, boolean timed, boolean failed) {
+        var now = clock.getAsLong();
+        var state = endpoints[endpoint];
+        state.inFlight.decrementAndGet();
+        if (timed) {
+            state.sample(now - startNanos);
+        }
+        if (!failed) {
+            state.consecutiveFailures.set(0);
+            return;
+        }
+        if (state.consecutiveFailures.incrementAndGet() >= ejectionThreshold && endpoints.length > 1) {
+            state.consecutiveFailures.set(0);
+            state.ejectedUntil = now + ejectionNanos;
+            logger.warn("Ejecting cat API endpoint {} ({}) for {} ms after {} consecutive failures",
+                    endpoint, baseUrls.get(endpoint), ejectionNanos / 1_000_000, ejectionThreshold);
+        }
+    }
+
+    boolean ejected(int endpoint) {
+        return endpoints[endpoint].ejectedAt(clock.getAsLong());
+    }
+
+    record Route(int endpoint, String id) {
+    }
+
+    private static final class Endpoint {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+        private final AtomicLong ewmaBits = new AtomicLong(Double.doubleToRawLongBits(0));
+
+        private volatile long ejectedUntil;
+
+        Endpoint(long now) {
+            this.ejectedUntil = now;
+        }
+
+        void sample(long latencyNanos) {
+            ewmaBits.getAndUpdate(bits -> {
+                var ewma = Double.longBitsToDouble(bits);
+                return Double.doubleToRawLongBits(ewma == 0 ? latencyNanos : ewma + EWMA_ALPHA * (latencyNanos - ewma));
+            });
+        }
+
+        double ewmaNanos() {
+            return Double.longBitsToDouble(ewmaBits.get());
+        }
+
+        /**
+         * Expected wait for one more call: the moving average latency scaled by the calls already queued on it.
+         */
+        double cost() {
+            return Math.max(ewmaNanos(), 1) * (inFlight.get() + 1);
+        }
+
+        boolean ejectedAt(long now) {
+            return now - ejectedUntil < 0;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.jvnyor.demorestclient.services;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.jvnyor.demorestclient.UpstreamExchange")
+@Label("Upstream Exchange")
+@Description("A single HTTP exchange with the cat API")
+@Category({"Demo RestClient", "Upstream"})
+@StackTrace(false)
+class UpstreamExchangeEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("URI")
+    String uri;
+
+    @Label("Status")
+    int status;
+
+    @Label("Failure")
+    String failure;
+}
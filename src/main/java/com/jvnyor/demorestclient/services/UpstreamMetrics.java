@@ -0,0 +1,66 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+class UpstreamMetrics {
+
+    static final String REQUESTS_METRIC = "crud.upstream.requests";
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    UpstreamMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    <T> T record(String operation, Supplier<T> call) {
+        var start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return call.get();
+        } catch (RuntimeException | Error exception) {
+            failure = exception;
+            throw exception;
+        } finally {
+            record(operation, start, failure);
+        }
+    }
+
+    /**
+     * Records a call that started at {@code startNanos}, with the exception it failed with or {@code null}.
+     */
+    void record(String operation, long startNanos, Throwable exception) {
+        timer(operation, outcome(exception)).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String outcome(Throwable exception) {
+        if (exception == null) {
+            return "success";
+        }
+        if (exception instanceof CatNotFoundException) {
+            return "not_found";
+        }
+        if (exception instanceof CatUpstreamUnavailableException) {
+            return "rejected";
+        }
+        return "error";
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return timers.computeIfAbsent(operation + ':' + outcome, key -> Timer.builder(REQUESTS_METRIC)
+                .description("Calls to the cat API by operation and outcome")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
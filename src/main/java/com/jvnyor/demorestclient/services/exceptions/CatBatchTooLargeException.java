@@ -0,0 +1,7 @@
+package com.jvnyor.demorestclient.services.exceptions;
+
+public class CatBatchTooLargeException extends RuntimeException {
+    public CatBatchTooLargeException(int maxSize) {
+        super("A cat batch may contain at most " + maxSize + " items.");
+    }
+}
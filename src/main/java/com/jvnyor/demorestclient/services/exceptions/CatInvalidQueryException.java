@@ -0,0 +1,7 @@
+package com.jvnyor.demorestclient.services.exceptions;
+
+public class CatInvalidQueryException extends RuntimeException {
+    public CatInvalidQueryException(String message) {
+        super(message);
+    }
+}
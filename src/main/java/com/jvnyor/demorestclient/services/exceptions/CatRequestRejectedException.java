@@ -0,0 +1,10 @@
+package com.jvnyor.demorestclient.services.exceptions;
+
+/**
+ * The cat API answered with a client error other than 404: it is up and well, the request was not.
+ */
+public class CatRequestRejectedException extends CatUnknownErrorException {
+    public CatRequestRejectedException() {
+        super("The cat API rejected the cat request.");
+    }
+}
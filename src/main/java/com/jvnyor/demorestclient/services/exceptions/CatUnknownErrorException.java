@@ -2,6 +2,10 @@ package com.jvnyor.demorestclient.services.exceptions;
 
 public class CatUnknownErrorException extends RuntimeException {
     public CatUnknownErrorException() {
-        super("An unknown error occurred while processing the cat request.");
+        this("An unknown error occurred while processing the cat request.");
     }
-}
\ No newline at end of file
+
+    protected CatUnknownErrorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.jvnyor.demorestclient.services.exceptions;
+
+import java.time.Duration;
+
+public class CatUpdateQueueFullException extends CatUpstreamUnavailableException {
+    public CatUpdateQueueFullException(Duration retryAfter) {
+        super("Too many cat updates are waiting to be written, try again later.", retryAfter);
+    }
+}
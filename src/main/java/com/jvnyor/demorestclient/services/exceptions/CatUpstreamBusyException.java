@@ -0,0 +1,9 @@
+package com.jvnyor.demorestclient.services.exceptions;
+
+import java.time.Duration;
+
+public class CatUpstreamBusyException extends CatUpstreamUnavailableException {
+    public CatUpstreamBusyException() {
+        super("Too many concurrent requests to the cat API, try again later.", Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,21 @@
+package com.jvnyor.demorestclient.services.exceptions;
+
+import java.time.Duration;
+
+public class CatUpstreamUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public CatUpstreamUnavailableException(Duration retryAfter) {
+        this("The cat API is currently unavailable, try again later.", retryAfter);
+    }
+
+    protected CatUpstreamUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
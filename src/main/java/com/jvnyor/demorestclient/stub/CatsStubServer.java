@@ -0,0 +1,181 @@
+package com.jvnyor.demorestclient.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.demorestclient.dtos.CatRequestDTO;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stand-in for the crudcrud {@code /cats} API, served over real HTTP on the loopback interface so that
+ * local runs and load tests exercise the actual connection pools and sockets without spending the crudcrud quota.
+ * <p>
+ * Every response is delayed by a log-normal latency with the given median and 99th percentile, and can be replaced by
+ * an injected 500 (for any request) or 404 (for requests on a single cat) at the given rates.
+ */
+public class CatsStubServer implements AutoCloseable {
+
+    /**
+     * z-score of the 99th percentile of the standard normal distribution.
+     */
+    private static final double Z_99 = 2.326;
+
+    private static final String CATS_PATH = "/api/cats";
+
+    private final Logger logger = LoggerFactory.getLogger(CatsStubServer.class);
+
+    private final Map<String, CatResponseDTO> cats = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextId = new AtomicLong(0x60f1b3b3b3b3L);
+
+    private final ObjectMapper objectMapper;
+
+    private final long latencyMedianNanos;
+
+    private final double latencySigma;
+
+    private final double errorRate;
+
+    private final double notFoundRate;
+
+    private final ExecutorService executor;
+
+    private final HttpServer server;
+
+    public CatsStubServer(int port, Duration latencyMedian, Duration latencyP99, double errorRate, double notFoundRate, ObjectMapper objectMapper) throws IOException {
+        if (latencyP99.compareTo(latencyMedian) < 0) {
+            throw new IllegalArgumentException("latencyP99 must not be lower than latencyMedian");
+        }
+        this.objectMapper = objectMapper;
+        this.latencyMedianNanos = latencyMedian.toNanos();
+        this.latencySigma = latencyMedian.isZero() ? 0 : Math.log((double) latencyP99.toNanos() / latencyMedianNanos) / Z_99;
+        this.errorRate = errorRate;
+        this.notFoundRate = notFoundRate;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        this.server.setExecutor(executor);
+        this.server.createContext(CATS_PATH, this::handle);
+        this.server.start();
+        logger.info("Cats stub server listening on {}", baseUrl());
+    }
+
+    /**
+     * Base URL to use as {@code crud-crud.base.url}.
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+    }
+
+    /**
+     * Adds {@code count} generated cats and returns their ids.
+     */
+    public List<String> seed(int count) {
+        var ids = new ArrayList<String>(count);
+        var colors = List.of("Black", "White", "Grey", "Ginger", "Tabby");
+        var random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            var id = newId();
+            cats.put(id, new CatResponseDTO(id, "Cat " + i, colors.get(i % colors.size()), Math.round(random.nextDouble(2.0, 9.0) * 10) / 10.0));
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    public int size() {
+        return cats.size();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            var requestBody = exchange.getRequestBody().readAllBytes();
+            simulateLatency();
+            var path = exchange.getRequestURI().getPath();
+            var id = path.length() > CATS_PATH.length() + 1 ? path.substring(CATS_PATH.length() + 1) : null;
+            var random = ThreadLocalRandom.current();
+            if (random.nextDouble() < errorRate) {
+                respond(exchange, 500, "{\"error\":\"injected failure\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            if (id != null && random.nextDouble() < notFoundRate) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            switch (exchange.getRequestMethod()) {
+                case "GET" -> {
+                    if (id == null) {
+                        respond(exchange, 200, objectMapper.writeValueAsBytes(cats.values()));
+                    } else {
+                        var cat = cats.get(id);
+                        if (cat == null) {
+                            exchange.sendResponseHeaders(404, -1);
+                        } else {
+                            respond(exchange, 200, objectMapper.writeValueAsBytes(cat));
+                        }
+                    }
+                }
+                case "POST" -> {
+                    if (id != null) {
+                        exchange.sendResponseHeaders(405, -1);
+                        return;
+                    }
+                    var catRequestDTO = objectMapper.readValue(requestBody, CatRequestDTO.class);
+                    var cat = new CatResponseDTO(newId(), catRequestDTO.name(), catRequestDTO.color(), catRequestDTO.weight());
+                    cats.put(cat._id(), cat);
+                    respond(exchange, 201, objectMapper.writeValueAsBytes(cat));
+                }
+                case "PUT" -> {
+                    var catRequestDTO = objectMapper.readValue(requestBody, CatRequestDTO.class);
+                    var updated = id == null ? null : cats.computeIfPresent(id, (key, cat) ->
+                            new CatResponseDTO(key, catRequestDTO.name(), catRequestDTO.color(), catRequestDTO.weight()));
+                    exchange.sendResponseHeaders(updated == null ? 404 : 200, -1);
+                }
+                case "DELETE" -> exchange.sendResponseHeaders(id != null && cats.remove(id) != null ? 200 : 404, -1);
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    private void simulateLatency() {
+        if (latencyMedianNanos == 0) {
+            return;
+        }
+        var delayNanos = (long) (latencyMedianNanos * Math.exp(latencySigma * ThreadLocalRandom.current().nextGaussian()));
+        try {
+            Thread.sleep(Duration.ofNanos(delayNanos));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String newId() {
+        return String.format("%024x", nextId.getAndIncrement());
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+}
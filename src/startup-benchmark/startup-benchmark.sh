@@ -0,0 +1,91 @@
+#!/usr/bin/env bash
+#
+# Startup time and memory of the packaged variants of the application, run by the startup-benchmark profile:
+#
+#   fat-jar   java -jar <fat jar>
+#   aot-cds   java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar <cds jar>   (-Pcds)
+#   native    <native image>                                                                      (-Pnative)
+#
+# Variants that were not built are skipped. Each one is started RUNS times: "ready" is the wall-clock time from the
+# fork to the first successful /actuator/health, "started" is Spring's own "process running for", and memory is the
+# resident set size once ready. Medians are printed and written to $TARGET_DIR/startup-benchmark.txt.
+
+set -euo pipefail
+
+JAVA=${JAVA:-java}
+TARGET_DIR=${TARGET_DIR:-target}
+RUNS=${RUNS:-5}
+PORT=${PORT:-18080}
+# Nothing listens there: startup never calls the upstream
+APP_ARGS=${APP_ARGS:-"--crud-crud.base.url=http://localhost:8089/api"}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-60}
+
+report="$(realpath "$TARGET_DIR")/startup-benchmark.txt"
+log="$(realpath "$TARGET_DIR")/startup-benchmark.log"
+
+# Plain bash rather than curl, so that polling does not fork while the application competes for the CPU
+healthy() {
+  local status
+  exec 3<> "/dev/tcp/localhost/$PORT" || return 1
+  printf 'GET /actuator/health HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n' >&3
+  read -r -t 5 status <&3 || status=
+  exec 3>&-
+  [[ $status == *" 200"* ]]
+}
+
+median() {
+  sort -n | awk '{ values[NR] = $1 } END { if (NR) print (NR % 2 ? values[(NR + 1) / 2] : (values[NR / 2] + values[NR / 2 + 1]) / 2) }'
+}
+
+# Starts the command once and prints "<ready millis> <started seconds> <rss kB>"
+measure() {
+  local start pid ready started rss
+  start=$EPOCHREALTIME
+  SECONDS=0
+  "$@" --server.port="$PORT" $APP_ARGS > "$log" 2>&1 &
+  pid=$!
+  until healthy 2> /dev/null; do
+    if ! kill -0 "$pid" 2> /dev/null || (( SECONDS > TIMEOUT_SECONDS )); then
+      echo "Did not start: $*, see $log" >&2
+      kill "$pid" 2> /dev/null || true
+      return 1
+    fi
+    sleep 0.02
+  done
+  ready=$(( (${EPOCHREALTIME/[.,]/} - ${start/[.,]/}) / 1000 ))
+  rss=$(awk '/^VmRSS:/ { print $2 }' "/proc/$pid/status")
+  started=$(sed -n 's/.*Started .* (process running for \([0-9.]*\)).*/\1/p' "$log" | head -n 1)
+  kill "$pid"
+  wait "$pid" 2> /dev/null || true
+  echo "$ready ${started:-0} $rss"
+}
+
+benchmark() {
+  local name=$1 samples
+  shift
+  samples=$(mktemp)
+  # One discarded run so every variant starts with a warm page cache
+  measure "$@" > /dev/null
+  for (( run = 0; run < RUNS; run++ )); do
+    measure "$@" >> "$samples"
+  done
+  printf '%-8s %5d %10d %12s %8d\n' "$name" "$RUNS" \
+    "$(cut -d ' ' -f 1 "$samples" | median)" \
+    "$(cut -d ' ' -f 2 "$samples" | median)" \
+    $(( $(cut -d ' ' -f 3 "$samples" | median | cut -d . -f 1) / 1024 )) | tee -a "$report"
+  rm -f "$samples"
+}
+
+printf '%-8s %5s %10s %12s %8s\n' variant runs ready-ms started-s rss-mb | tee "$report"
+
+if [[ -f ${FAT_JAR:-} ]]; then
+  benchmark fat-jar "$JAVA" -jar "$FAT_JAR"
+fi
+if [[ -f ${CDS_JAR:-} && -f $(dirname "$CDS_JAR")/application.jsa ]]; then
+  # The archive is only used with the class path it was dumped with, which is relative to the CDS directory
+  (cd "$(dirname "$CDS_JAR")" &&
+    benchmark aot-cds "$JAVA" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar "$(basename "$CDS_JAR")")
+fi
+if [[ -x ${NATIVE_IMAGE:-} ]]; then
+  benchmark native "$NATIVE_IMAGE"
+fi
@@ -0,0 +1,62 @@
+package com.jvnyor.demorestclient.configs;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JdkHttpClientKeepAliveTest {
+
+    private String previous;
+
+    @BeforeEach
+    void setUp() {
+        this.previous = System.clearProperty(JdkHttpClientKeepAlive.KEEP_ALIVE_PROPERTY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (previous == null) {
+            System.clearProperty(JdkHttpClientKeepAlive.KEEP_ALIVE_PROPERTY);
+        } else {
+            System.setProperty(JdkHttpClientKeepAlive.KEEP_ALIVE_PROPERTY, previous);
+        }
+    }
+
+    @Test
+    void givenApacheClient_whenPostProcessEnvironment_thenKeepAliveIsLeftAlone() {
+        postProcess(new MockEnvironment()
+                .withProperty("crud-crud.http.client", "apache")
+                .withProperty("crud-crud.http.idle-eviction", "10s"));
+
+        assertNull(System.getProperty(JdkHttpClientKeepAlive.KEEP_ALIVE_PROPERTY));
+    }
+
+    @Test
+    void givenJdkClient_whenPostProcessEnvironment_thenKeepAliveIsTheIdleEviction() {
+        postProcess(new MockEnvironment()
+                .withProperty("crud-crud.http.client", "jdk")
+                .withProperty("crud-crud.http.idle-eviction", "10s"));
+
+        assertEquals("10", System.getProperty(JdkHttpClientKeepAlive.KEEP_ALIVE_PROPERTY));
+    }
+
+    @Test
+    void givenKeepAliveOnCommandLine_whenPostProcessEnvironment_thenItWins() {
+        System.setProperty(JdkHttpClientKeepAlive.KEEP_ALIVE_PROPERTY, "60");
+
+        postProcess(new MockEnvironment()
+                .withProperty("crud-crud.http.client", "jdk")
+                .withProperty("crud-crud.http.idle-eviction", "10s"));
+
+        assertEquals("60", System.getProperty(JdkHttpClientKeepAlive.KEEP_ALIVE_PROPERTY));
+    }
+
+    private static void postProcess(MockEnvironment environment) {
+        new JdkHttpClientKeepAlive().postProcessEnvironment(environment, new SpringApplication());
+    }
+}
@@ -0,0 +1,51 @@
+package com.jvnyor.demorestclient.configs;
+
+import com.jvnyor.demorestclient.controllers.exceptions.ControllerExceptionHandler;
+import com.jvnyor.demorestclient.controllers.exceptions.dtos.ErrorResponseDTO;
+import com.jvnyor.demorestclient.dtos.CatRequestDTO;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.annotation.ReflectiveRuntimeHintsRegistrar;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuntimeHintsConfigTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        this.hints = new RuntimeHints();
+        // What the AOT engine does with these bean classes at build time
+        new ReflectiveRuntimeHintsRegistrar().registerRuntimeHints(hints, RuntimeHintsConfig.class, ControllerExceptionHandler.class);
+        new RuntimeHintsConfig.SwaggerUiHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void givenRuntimeHintsConfig_whenRegisterHints_thenDTOsCanBeBoundByJackson() {
+        var reflection = RuntimeHintsPredicates.reflection();
+
+        assertAll(
+                () -> assertTrue(reflection.onConstructor(CatRequestDTO.class.getDeclaredConstructor(String.class, String.class, Double.class)).test(hints)),
+                () -> assertTrue(reflection.onMethod(CatResponseDTO.class, "_id").test(hints)),
+                () -> assertTrue(reflection.onMethod(ErrorResponseDTO.class, "message").test(hints))
+        );
+    }
+
+    @Test
+    void givenControllerExceptionHandler_whenRegisterHints_thenHandlersCanBeInvoked() throws NoSuchMethodException {
+        var handler = ControllerExceptionHandler.class.getDeclaredMethod("handleException", Exception.class, HttpServletRequest.class);
+
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(handler).test(hints));
+    }
+
+    @Test
+    void givenSwaggerUiHints_whenRegisterHints_thenWebjarResourcesAreIncluded() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("META-INF/resources/webjars/swagger-ui/5.13.0/index.html").test(hints));
+    }
+}
@@ -0,0 +1,246 @@
+package com.jvnyor.demorestclient.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.demorestclient.DemoRestClientSpringBootApplication;
+import com.jvnyor.demorestclient.stub.CatsStubServer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives {@link CrudController} over HTTP at a fixed request rate against {@link CatsStubServer} and reports
+ * throughput and latency percentiles, once with the servlet container on virtual threads and once on its platform
+ * thread pool. Requests are issued on a fixed schedule (open loop) and latency is measured from the scheduled start,
+ * so a stalled server shows up in the percentiles instead of silently lowering the offered load. Requests that fail or
+ * time out count at the time they took to fail, and requests still running when the measurement ends count at the time
+ * they had been running, so the percentiles never drop the slowest requests; the latter are also reported as
+ * {@code unfinished}. During the warmup the rate ramps up linearly to the target, so a cold JIT does not trip the
+ * circuit breaker before the measurement starts, and a priming run on platform threads warms the JVM first so that
+ * neither mode pays for the JIT of the other.
+ * <p>
+ * Excluded from the default build; run with {@code mvn test -Pload-test}. Tunable through system properties:
+ * {@code load.rps}, {@code load.prime-seconds}, {@code load.warmup-seconds}, {@code load.duration-seconds},
+ * {@code load.stub.latency-median}, {@code load.stub.latency-p99}, {@code load.stub.error-rate} and {@code load.args}
+ * (extra application arguments, e.g. {@code "--crud-crud.cache.enabled=false --crud-crud.http.client=jdk"}).
+ */
+@Tag("load")
+class CrudControllerLoadTest {
+
+    private static final int RPS = Integer.getInteger("load.rps", 500);
+
+    private static final int PRIME_SECONDS = Integer.getInteger("load.prime-seconds", 20);
+
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 20);
+
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 20);
+
+    private static final Duration STUB_LATENCY_MEDIAN = Duration.parse(System.getProperty("load.stub.latency-median", "PT0.02S"));
+
+    private static final Duration STUB_LATENCY_P99 = Duration.parse(System.getProperty("load.stub.latency-p99", "PT0.15S"));
+
+    private static final double STUB_ERROR_RATE = Double.parseDouble(System.getProperty("load.stub.error-rate", "0.001"));
+
+    private static final String EXTRA_ARGS = System.getProperty("load.args", "");
+
+    private static final Path REPORT = Path.of("target", "load-test-report.txt");
+
+    @BeforeAll
+    static void primeJvm() throws Exception {
+        if (PRIME_SECONDS > 0) {
+            run(false, PRIME_SECONDS, 0);
+        }
+    }
+
+    @ParameterizedTest(name = "virtual threads: {0}")
+    @ValueSource(booleans = {true, false})
+    void givenTargetRate_whenDrivingCrudController_thenReportThroughputAndLatency(boolean virtualThreads) throws Exception {
+        var result = run(virtualThreads, WARMUP_SECONDS, DURATION_SECONDS);
+        var report = result.format("virtual-threads=" + virtualThreads + (EXTRA_ARGS.isBlank() ? "" : " " + EXTRA_ARGS));
+        System.out.println(report);
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, report + System.lineSeparator(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        assertTrue(result.completed() > 0, "no request completed");
+    }
+
+    private static LoadResult run(boolean virtualThreads, int warmupSeconds, int durationSeconds) throws Exception {
+        try (var stub = new CatsStubServer(0, STUB_LATENCY_MEDIAN, STUB_LATENCY_P99, STUB_ERROR_RATE, 0.0, new ObjectMapper())) {
+            var ids = stub.seed(1000);
+            var args = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--crud-crud.base.url=" + stub.baseUrl(),
+                    "--spring.threads.virtual.enabled=" + virtualThreads,
+                    "--crud-crud.logging.mode=off",
+                    "--logging.level.root=WARN"));
+            if (!EXTRA_ARGS.isBlank()) {
+                args.addAll(Arrays.asList(EXTRA_ARGS.trim().split("\\s+")));
+            }
+            try (var context = new SpringApplicationBuilder(DemoRestClientSpringBootApplication.class).run(args.toArray(String[]::new))) {
+                var baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+                return drive(baseUrl, ids, warmupSeconds, durationSeconds);
+            }
+        }
+    }
+
+    private static LoadResult drive(String baseUrl, List<String> ids, int warmupSeconds, int durationSeconds) throws InterruptedException {
+        var warmupRequests = RPS * warmupSeconds / 2;
+        var measuredRequests = RPS * durationSeconds;
+        var latencies = new AtomicLongArray(measuredRequests);
+        var scheduled = new long[measuredRequests];
+        var statuses = new AtomicIntegerArray(6);
+        var failures = new AtomicLong();
+        var timeouts = new AtomicLong();
+        var intervalNanos = 1_000_000_000.0 / RPS;
+        var threads = ManagementFactory.getThreadMXBean();
+        var memory = ManagementFactory.getMemoryMXBean();
+        var peakHeap = new AtomicLong();
+        long measurementStart = 0;
+        long measurementEnd;
+        try (var client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+             var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var sampler = Thread.ofVirtual().start(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                    LockSupport.parkNanos(100_000_000L);
+                }
+            });
+            var start = System.nanoTime();
+            var rampNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+            for (int i = 0; i < warmupRequests + measuredRequests; i++) {
+                // The i-th request of a linear ramp from 0 to RPS over the warmup is due at sqrt(2 * warmup * i / RPS)
+                var scheduledAt = i < warmupRequests
+                        ? start + (long) Math.sqrt(2.0 * rampNanos * i * intervalNanos)
+                        : start + rampNanos + (long) ((i - warmupRequests) * intervalNanos);
+                long wait;
+                while ((wait = scheduledAt - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (i == warmupRequests) {
+                    measurementStart = scheduledAt;
+                    threads.resetPeakThreadCount();
+                    peakHeap.set(0);
+                }
+                var slot = i - warmupRequests;
+                if (slot >= 0) {
+                    scheduled[slot] = scheduledAt;
+                }
+                var request = nextRequest(baseUrl, ids);
+                executor.submit(() -> {
+                    try {
+                        var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (slot >= 0) {
+                            latencies.set(slot, System.nanoTime() - scheduledAt);
+                            statuses.incrementAndGet(response.statusCode() / 100);
+                        }
+                    } catch (HttpTimeoutException exception) {
+                        if (slot >= 0) {
+                            latencies.set(slot, System.nanoTime() - scheduledAt);
+                            timeouts.incrementAndGet();
+                        }
+                    } catch (IOException exception) {
+                        if (slot >= 0) {
+                            latencies.set(slot, System.nanoTime() - scheduledAt);
+                            failures.incrementAndGet();
+                        }
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            measurementEnd = System.nanoTime();
+            executor.shutdownNow();
+            sampler.interrupt();
+        }
+        // A request still running counts at the time it had been running so far, a lower bound of its latency
+        var measured = new long[measuredRequests];
+        var unfinished = 0;
+        for (int slot = 0; slot < measuredRequests; slot++) {
+            var latency = latencies.get(slot);
+            if (latency == 0) {
+                unfinished++;
+                latency = measurementEnd - scheduled[slot];
+            }
+            measured[slot] = latency;
+        }
+        return new LoadResult(measured, statuses, failures.get(), timeouts.get(), unfinished, measurementEnd - measurementStart,
+                threads.getPeakThreadCount(), peakHeap.get());
+    }
+
+    private static HttpRequest nextRequest(String baseUrl, List<String> ids) {
+        var random = ThreadLocalRandom.current();
+        var id = ids.get(random.nextInt(ids.size()));
+        var roll = random.nextInt(100);
+        var builder = HttpRequest.newBuilder().timeout(Duration.ofSeconds(10));
+        if (roll < 70) {
+            return builder.uri(URI.create(baseUrl + "/cats/" + id)).GET().build();
+        }
+        if (roll < 80) {
+            return builder.uri(URI.create(baseUrl + "/cats?color=black&limit=20")).GET().build();
+        }
+        var form = "name=Load&color=Black&weight=" + (2 + random.nextInt(8));
+        var uri = roll < 90 ? baseUrl + "/cats" : baseUrl + "/cats/" + id;
+        return builder.uri(URI.create(uri))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .method(roll < 90 ? "POST" : "PUT", HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private record LoadResult(long[] latencies, AtomicIntegerArray statuses, long failures, long timeouts, int unfinished,
+                              long elapsedNanos, int peakPlatformThreads, long peakHeapBytes) {
+
+        long completed() {
+            var completed = 0L;
+            for (int statusClass = 1; statusClass < statuses.length(); statusClass++) {
+                completed += statuses.get(statusClass);
+            }
+            return completed;
+        }
+
+        String format(String label) {
+            var sorted = Arrays.stream(latencies).sorted().toArray();
+            var throughput = completed() / (elapsedNanos / 1e9);
+            return String.format("[%s] target=%d rps achieved=%.1f rps requests=%d 2xx=%d 4xx=%d 5xx=%d io-failures=%d "
+                            + "timeouts=%d unfinished=%d p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms "
+                            + "peak-platform-threads=%d peak-heap=%dMiB",
+                    label, RPS, throughput, latencies.length, statuses.get(2), statuses.get(4), statuses.get(5), failures,
+                    timeouts, unfinished, percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99),
+                    percentileMillis(sorted, 0.999), percentileMillis(sorted, 1.0), peakPlatformThreads,
+                    peakHeapBytes / (1024 * 1024));
+        }
+
+        private static double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            var index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.jvnyor.demorestclient.controllers;
+
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import com.jvnyor.demorestclient.services.CatService;
+import com.jvnyor.demorestclient.services.exceptions.CatUnknownErrorException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Runs against the embedded server: whether a failed stream reaches the client as a cut-short response depends on
+ * the servlet container, which MockMvc does not emulate.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CrudControllerStreamTest {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private CatService catService;
+
+    @Test
+    void givenCats_whenStreamCats_thenReturnCompleteArray() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<CatResponseDTO> consumer = invocation.getArgument(0);
+            consumer.accept(new CatResponseDTO("1", "Smith", "Black", 6.0));
+            consumer.accept(new CatResponseDTO("2", "Barry", "White", 7.5));
+            return null;
+        }).when(catService).streamCats(any());
+
+        var response = stream("json");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("[{") && response.body().endsWith("}]"), response.body());
+    }
+
+    @Test
+    void givenUpstreamFailsAfterFirstCat_whenStreamCats_thenConnectionIsAborted() {
+        doAnswer(invocation -> {
+            Consumer<CatResponseDTO> consumer = invocation.getArgument(0);
+            consumer.accept(new CatResponseDTO("1", "Smith", "Black", 6.0));
+            throw new CatUnknownErrorException();
+        }).when(catService).streamCats(any());
+
+        assertThrows(IOException.class, () -> stream("json"));
+        assertThrows(IOException.class, () -> stream("ndjson"));
+    }
+
+    @Test
+    void givenUpstreamUnavailableBeforeFirstCat_whenStreamCats_thenReturnServiceUnavailable() throws Exception {
+        doThrow(new CatUpstreamUnavailableException(Duration.ofSeconds(2))).when(catService).streamCats(any());
+
+        var response = stream("json");
+
+        assertAll(
+                () -> assertEquals(503, response.statusCode()),
+                () -> assertEquals("2", response.headers().firstValue(HttpHeaders.RETRY_AFTER).orElseThrow())
+        );
+    }
+
+    private HttpResponse<String> stream(String format) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/cats/stream?format=" + format)).build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,146 @@
+package com.jvnyor.demorestclient.controllers;
+
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import com.jvnyor.demorestclient.services.AsyncCrudService;
+import com.jvnyor.demorestclient.services.CatBatchService;
+import com.jvnyor.demorestclient.services.CatService;
+import com.jvnyor.demorestclient.services.CatSnapshotStore;
+import com.jvnyor.demorestclient.services.CatWriteBehindService;
+import com.jvnyor.demorestclient.services.CrudService;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamBusyException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CrudController.class)
+@Import({CatService.class, CrudControllerTest.MeterRegistryConfig.class})
+class CrudControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CrudService crudService;
+
+    @MockBean
+    private AsyncCrudService asyncCrudService;
+
+    @MockBean
+    private CatSnapshotStore snapshotStore;
+
+    @MockBean
+    private CatBatchService catBatchService;
+
+    @MockBean
+    private CatWriteBehindService catWriteBehindService;
+
+    @Test
+    void givenUpstreamBusy_whenGetCat_thenReturnServiceUnavailableWithRetryAfter() throws Exception {
+        when(crudService.getCat("1")).thenThrow(new CatUpstreamBusyException());
+
+        mockMvc.perform(get("/api/cats/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.exceptionName").value("CatUpstreamBusyException"));
+    }
+
+    @Test
+    void givenOpenCircuit_whenListCats_thenRetryAfterIsRoundedUpToWholeSeconds() throws Exception {
+        when(crudService.listCats()).thenThrow(new CatUpstreamUnavailableException(Duration.ofMillis(2500)));
+
+        mockMvc.perform(get("/api/cats"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+    }
+
+    @Test
+    void givenMatchingIfNoneMatch_whenGetCat_thenReturnNotModifiedWithoutBody() throws Exception {
+        when(crudService.getCat("1")).thenReturn(new CatResponseDTO("1", "Smith", "Black", 6.0));
+        var eTag = mockMvc.perform(get("/api/cats/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/cats/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void givenETagOfCat_whenUpdateCat_thenGetCatReturnsUpdatedCatWithNewETag() throws Exception {
+        when(crudService.getCat("1")).thenReturn(new CatResponseDTO("1", "Smith", "Black", 6.0));
+        var eTag = mockMvc.perform(get("/api/cats/1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/api/cats/1").param("name", "Smith").param("color", "Black").param("weight", "7.0"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/cats/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+                .andExpect(jsonPath("$.weight").value(7.0));
+    }
+
+    @Test
+    void givenETagOfCatList_whenDeleteCat_thenListCatsReturnsListWithNewETag() throws Exception {
+        var smith = new CatResponseDTO("1", "Smith", "Black", 6.0);
+        var barry = new CatResponseDTO("2", "Barry", "White", 7.5);
+        when(crudService.listCats()).thenReturn(List.of(smith, barry)).thenReturn(List.of(barry));
+        var eTag = mockMvc.perform(get("/api/cats"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(delete("/api/cats/1"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/cats").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+                .andExpect(jsonPath("$.length()").value(1));
+        verify(crudService).deleteCat("1");
+    }
+
+    @Test
+    void givenNonNumericLimit_whenListCats_thenReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/cats").param("limit", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid value for limit: abc."));
+    }
+
+    @Test
+    void givenNoIDs_whenGetOrDeleteCatsInBatch_thenReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/cats/batch"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.exceptionName").value("MissingServletRequestParameterException"));
+        mockMvc.perform(delete("/api/cats/batch"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class MeterRegistryConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.jvnyor.demorestclient.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.demorestclient.dtos.CatRequestDTO;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatRequestRejectedException;
+import com.jvnyor.demorestclient.services.exceptions.CatUnknownErrorException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamBusyException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncCrudServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<ClientRequest> requests = new ArrayList<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UpstreamBulkhead bulkhead = new UpstreamBulkhead(10, Duration.ZERO);
+
+    private CircuitBreaker circuitBreaker;
+
+    private CatResponseDTO catResponseDTO;
+
+    @BeforeEach
+    void setUp() {
+        this.catResponseDTO = new CatResponseDTO("1", "Smith", "Black", 6.0);
+    }
+
+    @Test
+    void givenExistingID_whenGetCat_thenReturnCatResponseDTO() throws Exception {
+        var asyncCrudService = asyncCrudServiceRespondingWith(HttpStatus.OK, objectMapper.writeValueAsString(catResponseDTO));
+
+        var catResponseDTOFromGet = asyncCrudService.getCat("1").get();
+
+        assertAll(
+                () -> Assertions.assertEquals(catResponseDTO, catResponseDTOFromGet),
+                () -> Assertions.assertEquals(HttpMethod.GET, requests.getFirst().method()),
+                () -> Assertions.assertEquals("http://localhost:8080/api/v1/cats/1", requests.getFirst().url().toString())
+        );
+    }
+
+    @Test
+    void givenNonExistentID_whenGetCat_thenCompleteWithCatNotFoundException() {
+        var asyncCrudService = asyncCrudServiceRespondingWith(HttpStatus.NOT_FOUND, "");
+
+        var exception = assertThrows(ExecutionException.class, () -> asyncCrudService.getCat("1").get());
+        assertInstanceOf(CatNotFoundException.class, exception.getCause());
+    }
+
+    @Test
+    void givenCatRequestDTO_whenCreateCat_butRequestFail_thenCompleteWithCatUnknownErrorException() {
+        var asyncCrudService = asyncCrudServiceRespondingWith(HttpStatus.INTERNAL_SERVER_ERROR, "");
+
+        var exception = assertThrows(ExecutionException.class, () -> asyncCrudService.createCat(new CatRequestDTO("Smith", "Black", 6.0)).get());
+        assertInstanceOf(CatUnknownErrorException.class, exception.getCause());
+    }
+
+    @Test
+    void givenExistingID_whenDeleteCat_thenComplete() {
+        var asyncCrudService = asyncCrudServiceRespondingWith(HttpStatus.NO_CONTENT, "");
+
+        assertDoesNotThrow(() -> asyncCrudService.deleteCat("1").get());
+        assertEquals(HttpMethod.DELETE, requests.getFirst().method());
+    }
+
+    @Test
+    void givenRequest_whenListCats_thenReturnListContainingCatResponseDTO() throws Exception {
+        var asyncCrudService = asyncCrudServiceRespondingWith(HttpStatus.OK, objectMapper.writeValueAsString(List.of(catResponseDTO)));
+
+        assertEquals(List.of(catResponseDTO), asyncCrudService.listCats().get());
+    }
+
+    @Test
+    void givenConcurrencyLimitReached_whenGetCat_thenFailFastWithBusyExceptionWithoutCallingUpstream() {
+        bulkhead = new UpstreamBulkhead(1, Duration.ofSeconds(5));
+        bulkhead.tryAcquire();
+        var asyncCrudService = asyncCrudServiceRespondingWith(HttpStatus.OK, "");
+
+        var exception = assertThrows(ExecutionException.class, () -> asyncCrudService.getCat("1").get());
+        assertAll(
+                () -> assertInstanceOf(CatUpstreamBusyException.class, exception.getCause()),
+                () -> assertTrue(requests.isEmpty()),
+                () -> assertEquals(1, meterRegistry.get(UpstreamMetrics.REQUESTS_METRIC).tag("outcome", "rejected").timer().count())
+        );
+    }
+
+    @Test
+    void givenCall_whenGetCat_thenPermitIsReleasedAndCallIsRecorded() throws Exception {
+        var asyncCrudService = asyncCrudServiceRespondingWith(HttpStatus.OK, objectMapper.writeValueAsString(catResponseDTO));
+
+        asyncCrudService.getCat("1").get();
+
+        assertAll(
+                () -> assertEquals(0, bulkhead.inFlight()),
+                () -> assertEquals(1, meterRegistry.get(UpstreamMetrics.REQUESTS_METRIC)
+                        .tag("operation", "get").tag("outcome", "success").timer().count())
+        );
+    }
+
+    @Test
+    void givenFailingUpstream_whenCallsExceedFailureRate_thenCircuitBreakerOpensAndFailsFast() {
+        circuitBreaker = new CircuitBreaker(4, 2, 0.5, Duration.ofSeconds(10), 1);
+        var asyncCrudService = asyncCrudServiceRespondingWith(HttpStatus.INTERNAL_SERVER_ERROR, "");
+        for (int i = 0; i < 2; i++) {
+            assertThrows(ExecutionException.class, () -> asyncCrudService.deleteCat("1").get());
+        }
+
+        var exception = assertThrows(ExecutionException.class, () -> asyncCrudService.deleteCat("1").get());
+        assertAll(
+                () -> assertInstanceOf(CatUpstreamUnavailableException.class, exception.getCause()),
+                () -> assertEquals(2, requests.size()),
+                () -> assertEquals(0, bulkhead.inFlight())
+        );
+    }
+
+    @Test
+    void givenClientErrorStatus_whenUpdateCat_thenCompleteWithRejectedExceptionAndKeepCircuitClosed() {
+        circuitBreaker = new CircuitBreaker(4, 2, 0.5, Duration.ofSeconds(10), 1);
+        var asyncCrudService = asyncCrudServiceRespondingWith(HttpStatus.BAD_REQUEST, "");
+        for (int i = 0; i < 3; i++) {
+            var exception = assertThrows(ExecutionException.class, () -> asyncCrudService.updateCat("1", new CatRequestDTO("Smith", "Black", 6.0)).get());
+            assertInstanceOf(CatRequestRejectedException.class, exception.getCause());
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+    }
+
+    private AsyncCrudService asyncCrudServiceRespondingWith(HttpStatus status, String body) {
+        var webClientBuilder = WebClient.builder().exchangeFunction(request -> {
+            requests.add(request);
+            return Mono.just(ClientResponse.create(status)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(body)
+                    .build());
+        });
+        var endpoints = new UpstreamEndpoints(List.of("http://localhost:8080/api/v1"), 5, Duration.ofSeconds(30), System::nanoTime);
+        var crudService = mock(CrudService.class);
+        when(crudService.bulkhead()).thenReturn(bulkhead);
+        when(crudService.metrics()).thenReturn(new UpstreamMetrics(meterRegistry));
+        when(crudService.circuitBreaker(anyString(), anyInt())).thenReturn(circuitBreaker);
+        return new AsyncCrudService(Duration.ofSeconds(5), endpoints, crudService, webClientBuilder);
+    }
+}
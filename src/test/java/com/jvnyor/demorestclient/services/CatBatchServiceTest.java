@@ -0,0 +1,87 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.dtos.CatRequestDTO;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import com.jvnyor.demorestclient.services.exceptions.CatBatchTooLargeException;
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatUnknownErrorException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatBatchServiceTest {
+
+    private CatService catService;
+
+    private CatBatchService catBatchService;
+
+    @BeforeEach
+    void setUp() {
+        this.catService = mock(CatService.class);
+        this.catBatchService = new CatBatchService(catService, 4, 3);
+    }
+
+    @Test
+    void givenIds_whenGetCats_thenReturnPerItemResultsInOrder() {
+        var smith = new CatResponseDTO("1", "Smith", "Black", 6.0);
+        when(catService.getCat("1")).thenReturn(smith);
+        when(catService.getCat("2")).thenThrow(new CatNotFoundException());
+        when(catService.getCat("3")).thenThrow(new CatUnknownErrorException());
+
+        var results = catBatchService.getCats(List.of("1", "2", "3"));
+
+        assertAll(
+                () -> Assertions.assertEquals(3, results.size()),
+                () -> Assertions.assertEquals("1", results.get(0).id()),
+                () -> Assertions.assertEquals(200, results.get(0).status()),
+                () -> Assertions.assertEquals(smith, results.get(0).body()),
+                () -> Assertions.assertEquals("2", results.get(1).id()),
+                () -> Assertions.assertEquals(404, results.get(1).status()),
+                () -> Assertions.assertNull(results.get(1).body()),
+                () -> Assertions.assertEquals("3", results.get(2).id()),
+                () -> Assertions.assertEquals(500, results.get(2).status())
+        );
+    }
+
+    @Test
+    void givenCatRequestDTOs_whenCreateCats_thenReturnCreatedIds() {
+        var smith = new CatRequestDTO("Smith", "Black", 6.0);
+        var barry = new CatRequestDTO("Barry", "White", 7.5);
+        when(catService.createCat(smith)).thenReturn(new CatResponseDTO("1", "Smith", "Black", 6.0));
+        when(catService.createCat(barry)).thenReturn(new CatResponseDTO("2", "Barry", "White", 7.5));
+
+        var results = catBatchService.createCats(List.of(smith, barry));
+
+        assertAll(
+                () -> Assertions.assertEquals("1", results.get(0).id()),
+                () -> Assertions.assertEquals(201, results.get(0).status()),
+                () -> Assertions.assertEquals("2", results.get(1).id()),
+                () -> Assertions.assertEquals(201, results.get(1).status())
+        );
+    }
+
+    @Test
+    void givenIds_whenDeleteCats_thenEveryIdIsDeleted() {
+        doThrow(new CatNotFoundException()).when(catService).deleteCat("2");
+
+        var results = catBatchService.deleteCats(List.of("1", "2"));
+
+        assertAll(
+                () -> Assertions.assertEquals(204, results.get(0).status()),
+                () -> Assertions.assertEquals(404, results.get(1).status())
+        );
+        verify(catService).deleteCat("1");
+        verify(catService).deleteCat("2");
+    }
+
+    @Test
+    void givenTooManyIds_whenGetCats_thenThrowException() {
+        assertThrows(CatBatchTooLargeException.class, () -> catBatchService.getCats(List.of("1", "2", "3", "4")));
+        verifyNoInteractions(catService);
+    }
+}
@@ -0,0 +1,113 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.dtos.CatQueryDTO;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import com.jvnyor.demorestclient.services.exceptions.CatInvalidQueryException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatIndexTest {
+
+    private CatResponseDTO smith;
+
+    private CatResponseDTO barry;
+
+    private CatResponseDTO salem;
+
+    private CatResponseDTO tom;
+
+    private CatIndex catIndex;
+
+    @BeforeEach
+    void setUp() {
+        this.smith = new CatResponseDTO("1", "Smith", "Black", 6.0);
+        this.barry = new CatResponseDTO("2", "Barry", "White", 7.5);
+        this.salem = new CatResponseDTO("3", "salem", "black", 4.2);
+        this.tom = new CatResponseDTO("4", "Tom", "Grey", 5.1);
+        this.catIndex = new CatIndex(List.of(smith, barry, salem, tom), 0);
+    }
+
+    @Test
+    void givenColor_whenQuery_thenReturnCatsOfThatColorIgnoringCase() {
+        var page = catIndex.query(query("BLACK", null, null, null, null, null, null));
+
+        assertEquals(List.of(smith, salem), page.items());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void givenWeightRange_whenQuerySortedByWeightDescending_thenReturnCatsInRange() {
+        var page = catIndex.query(query(null, 5.0, 7.5, null, "-weight", null, null));
+
+        assertEquals(List.of(barry, smith, tom), page.items());
+    }
+
+    @Test
+    void givenNamePrefix_whenQuerySortedByName_thenMatchIgnoringCase() {
+        var page = catIndex.query(query(null, null, null, "s", "name", null, null));
+
+        assertEquals(List.of(salem, smith), page.items());
+    }
+
+    @Test
+    void givenNamePrefixDifferingOnlyInCase_whenQuerySortedByName_thenReturnEveryCaseVariant() {
+        var tommy = new CatResponseDTO("5", "tommy", "Grey", 4.0);
+        var upperTom = new CatResponseDTO("0", "TOM", "Grey", 3.0);
+        catIndex.put(tommy);
+        catIndex.put(upperTom);
+
+        var page = catIndex.query(query(null, null, null, "tom", "name", null, null));
+
+        assertEquals(List.of(upperTom, tom, tommy), page.items());
+    }
+
+    @Test
+    void givenLimit_whenFollowingCursors_thenEveryCatIsReturnedOnce() {
+        var seen = new ArrayList<CatResponseDTO>();
+        String cursor = null;
+        do {
+            var page = catIndex.query(query(null, null, null, null, "weight", 3, cursor));
+            seen.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(salem, tom, smith, barry), seen);
+    }
+
+    @Test
+    void givenCursorOfDeletedCat_whenQuery_thenContinueAfterIt() {
+        var firstPage = catIndex.query(query(null, null, null, null, null, 2, null));
+        catIndex.remove(barry._id());
+
+        var secondPage = catIndex.query(query(null, null, null, null, null, 2, firstPage.nextCursor()));
+
+        assertEquals(List.of(smith, barry), firstPage.items());
+        assertEquals(List.of(salem, tom), secondPage.items());
+    }
+
+    @Test
+    void givenUpdatedCat_whenQueryByOldAndNewColor_thenIndexIsMaintained() {
+        catIndex.put(new CatResponseDTO("1", "Smith", "Grey", 6.0));
+
+        assertEquals(List.of(salem), catIndex.query(query("black", null, null, null, null, null, null)).items());
+        assertEquals(2, catIndex.query(query("grey", null, null, null, null, null, null)).items().size());
+    }
+
+    @Test
+    void givenInvalidSortOrCursor_whenQuery_thenThrowCatInvalidQueryException() {
+        assertAll(
+                () -> assertThrows(CatInvalidQueryException.class, () -> catIndex.query(query(null, null, null, null, "color", null, null))),
+                () -> assertThrows(CatInvalidQueryException.class, () -> catIndex.query(query(null, null, null, null, null, null, "not-a-cursor"))),
+                () -> assertThrows(CatInvalidQueryException.class, () -> catIndex.query(query(null, null, null, null, null, 0, null)))
+        );
+    }
+
+    private static CatQueryDTO query(String color, Double minWeight, Double maxWeight, String namePrefix, String sort, Integer limit, String cursor) {
+        return new CatQueryDTO(color, minWeight, maxWeight, namePrefix, sort, limit, cursor);
+    }
+}
@@ -0,0 +1,319 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.dtos.CatQueryDTO;
+import com.jvnyor.demorestclient.dtos.CatRequestDTO;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatRequestRejectedException;
+import com.jvnyor.demorestclient.services.exceptions.CatUnknownErrorException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatServiceTest {
+
+    private CrudService crudService;
+
+    private AsyncCrudService asyncCrudService;
+
+    private CatSnapshotStore snapshotStore;
+
+    private CatService catService;
+
+    private CatRequestDTO catRequestDTO;
+
+    private CatResponseDTO catResponseDTO;
+
+    @BeforeEach
+    void setUp() {
+        this.crudService = mock(CrudService.class);
+        this.asyncCrudService = mock(AsyncCrudService.class);
+        this.snapshotStore = mock(CatSnapshotStore.class);
+        when(snapshotStore.findCat(anyString())).thenReturn(Optional.empty());
+        when(snapshotStore.findCats()).thenReturn(Optional.empty());
+        this.catService = new CatService(crudService, asyncCrudService, true, 100, Duration.ofMinutes(1), Duration.ofMinutes(1), snapshotStore, new SimpleMeterRegistry());
+        this.catRequestDTO = new CatRequestDTO("Smith", "Black", 6.0);
+        this.catResponseDTO = new CatResponseDTO("1", "Smith", "Black", 6.0);
+    }
+
+    @Test
+    void givenCachedCat_whenGetCat_thenUpstreamIsCalledOnce() {
+        when(crudService.getCat("1")).thenReturn(catResponseDTO);
+
+        var first = catService.getCat("1");
+        var second = catService.getCat("1");
+
+        assertAll(
+                () -> Assertions.assertEquals(catResponseDTO, first),
+                () -> Assertions.assertEquals(catResponseDTO, second)
+        );
+        verify(crudService, times(1)).getCat("1");
+    }
+
+    @Test
+    void givenNonExistentID_whenGetCatTwice_thenNotFoundIsCached() {
+        when(crudService.getCat("1")).thenThrow(new CatNotFoundException());
+
+        assertThrows(CatNotFoundException.class, () -> catService.getCat("1"));
+        assertThrows(CatNotFoundException.class, () -> catService.getCat("1"));
+
+        verify(crudService, times(1)).getCat("1");
+    }
+
+    @Test
+    void givenUnknownError_whenGetCat_thenErrorIsNotCached() {
+        when(crudService.getCat("1")).thenThrow(new CatUnknownErrorException()).thenReturn(catResponseDTO);
+
+        assertThrows(CatUnknownErrorException.class, () -> catService.getCat("1"));
+        assertEquals(catResponseDTO, catService.getCat("1"));
+
+        verify(crudService, times(2)).getCat("1");
+    }
+
+    @Test
+    void givenCachedCat_whenUpdateCat_thenCacheIsRefreshed() {
+        when(crudService.getCat("1")).thenReturn(catResponseDTO);
+        catService.getCat("1");
+
+        catService.updateCat("1", catRequestDTO.withWeight(7.0));
+
+        assertEquals(7.0, catService.getCat("1").weight());
+        verify(crudService, times(1)).getCat("1");
+    }
+
+    @Test
+    void givenCachedCat_whenUpdateIsQueued_thenGetCatReturnsItBeforeItIsWritten() {
+        when(crudService.getCat("1")).thenReturn(catResponseDTO);
+        catService.getCat("1");
+
+        catService.cacheUpdate("1", catRequestDTO.withWeight(7.0));
+
+        assertEquals(7.0, catService.getCat("1").weight());
+        verify(crudService, times(1)).getCat("1");
+        verify(crudService, never()).updateCat(anyString(), any());
+    }
+
+    @Test
+    void givenUpdateWhileIndexIsBuilt_whenQueryCats_thenIndexIncludesTheUpdate() {
+        when(crudService.listCats()).thenAnswer(invocation -> {
+            // Lands after the list was read, before the index built from it is published
+            catService.updateCat("1", catRequestDTO.withWeight(7.0));
+            return List.of(catResponseDTO);
+        });
+
+        var page = catService.queryCats(new CatQueryDTO(null, null, null, null, null, null, null));
+
+        assertEquals(7.0, page.items().getFirst().weight());
+    }
+
+    @Test
+    void givenUpdateWhileGetCatIsInFlight_whenGetCatAgain_thenStaleCatIsNotCached() {
+        when(crudService.getCat("1")).thenAnswer(invocation -> {
+            // The upstream answered before the update reached it
+            catService.updateCat("1", catRequestDTO.withWeight(7.0));
+            return catResponseDTO;
+        });
+
+        assertEquals(6.0, catService.getCat("1").weight());
+
+        assertEquals(7.0, catService.getCat("1").weight());
+        verify(crudService, times(1)).getCat("1");
+    }
+
+    @Test
+    void givenCreateWhileListCatsIsInFlight_whenListCatsAgain_thenStaleListIsNotCached() {
+        var barry = new CatResponseDTO("2", "Barry", "White", 7.5);
+        when(crudService.createCat(catRequestDTO)).thenReturn(barry);
+        when(crudService.listCats()).thenAnswer(invocation -> {
+            catService.createCat(catRequestDTO);
+            return List.of(catResponseDTO);
+        }).thenReturn(List.of(catResponseDTO, barry));
+
+        assertEquals(List.of(catResponseDTO), catService.listCats());
+
+        assertEquals(List.of(catResponseDTO, barry), catService.listCats());
+    }
+
+    @Test
+    void givenCachedCat_whenDeleteCat_thenCacheIsInvalidated() {
+        when(crudService.getCat("1")).thenReturn(catResponseDTO).thenThrow(new CatNotFoundException());
+        catService.getCat("1");
+
+        catService.deleteCat("1");
+
+        assertThrows(CatNotFoundException.class, () -> catService.getCat("1"));
+        verify(crudService, times(2)).getCat("1");
+    }
+
+    @Test
+    void givenCatAlreadyDeletedUpstream_whenDeleteCat_thenItIsRemovedFromSnapshotAndIndex() {
+        when(crudService.listCats()).thenReturn(List.of(catResponseDTO));
+        catService.queryCats(new CatQueryDTO(null, null, null, null, null, null, null));
+        doThrow(new CatNotFoundException()).when(crudService).deleteCat("1");
+
+        assertThrows(CatNotFoundException.class, () -> catService.deleteCat("1"));
+
+        assertEquals(List.of(), catService.queryCats(new CatQueryDTO(null, null, null, null, null, null, null)).items());
+        verify(snapshotStore).removeCat("1");
+    }
+
+    @Test
+    void givenCatAlreadyDeletedUpstream_whenDeleteCatAsync_thenItIsRemovedFromSnapshotAndIndex() {
+        when(crudService.listCats()).thenReturn(List.of(catResponseDTO));
+        catService.queryCats(new CatQueryDTO(null, null, null, null, null, null, null));
+        when(asyncCrudService.deleteCat("1")).thenReturn(CompletableFuture.failedFuture(new CatNotFoundException()));
+
+        var exception = assertThrows(CompletionException.class, () -> catService.deleteCatAsync("1").join());
+
+        assertInstanceOf(CatNotFoundException.class, exception.getCause());
+        assertEquals(List.of(), catService.queryCats(new CatQueryDTO(null, null, null, null, null, null, null)).items());
+        verify(snapshotStore).removeCat("1");
+    }
+
+    @Test
+    void givenCachedList_whenCreateCat_thenListIsInvalidated() {
+        when(crudService.listCats()).thenReturn(List.of()).thenReturn(List.of(catResponseDTO));
+        when(crudService.createCat(catRequestDTO)).thenReturn(catResponseDTO);
+        catService.listCats();
+        catService.listCats();
+
+        catService.createCat(catRequestDTO);
+
+        assertEquals(List.of(catResponseDTO), catService.listCats());
+        assertEquals(catResponseDTO, catService.getCat("1"));
+        verify(crudService, times(2)).listCats();
+        verify(crudService, never()).getCat("1");
+    }
+
+    @Test
+    void givenUpstreamFailure_whenGetCat_thenServeFreshSnapshot() {
+        when(crudService.getCat("1")).thenThrow(new CatUnknownErrorException());
+        when(snapshotStore.findCat("1")).thenReturn(Optional.of(catResponseDTO));
+
+        assertEquals(catResponseDTO, catService.getCat("1"));
+    }
+
+    @Test
+    void givenUpstreamIOError_whenListCats_thenServeFreshSnapshot() {
+        when(crudService.listCats()).thenThrow(new ResourceAccessException("Connection refused"));
+        when(snapshotStore.findCats()).thenReturn(Optional.of(List.of(catResponseDTO)));
+
+        assertEquals(List.of(catResponseDTO), catService.listCats());
+    }
+
+    @Test
+    void givenUpstreamFailure_whenGetCatAsync_thenServeFreshSnapshotAndCacheIt() {
+        when(asyncCrudService.getCat("1")).thenReturn(CompletableFuture.failedFuture(new CatUnknownErrorException()));
+        when(snapshotStore.findCat("1")).thenReturn(Optional.of(catResponseDTO));
+
+        assertEquals(catResponseDTO, catService.getCatAsync("1").join());
+        assertEquals(catResponseDTO, catService.getCatAsync("1").join());
+        verify(asyncCrudService, times(1)).getCat("1");
+    }
+
+    @Test
+    void givenUpstreamTimeout_whenListCatsAsync_thenServeFreshSnapshot() {
+        when(asyncCrudService.listCats()).thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+        when(snapshotStore.findCats()).thenReturn(Optional.of(List.of(catResponseDTO)));
+
+        assertEquals(List.of(catResponseDTO), catService.listCatsAsync().join());
+    }
+
+    @Test
+    void givenUpstreamRejectsRequest_whenGetCatAsync_thenCompleteWithTheRejection() {
+        when(asyncCrudService.getCat("1")).thenReturn(CompletableFuture.failedFuture(new CatRequestRejectedException()));
+        when(snapshotStore.findCat("1")).thenReturn(Optional.of(catResponseDTO));
+
+        var exception = assertThrows(CompletionException.class, () -> catService.getCatAsync("1").join());
+
+        assertInstanceOf(CatRequestRejectedException.class, exception.getCause());
+    }
+
+    @Test
+    void givenListCatsAsync_whenItSucceeds_thenListIsRecordedInSnapshot() {
+        when(asyncCrudService.listCats()).thenReturn(CompletableFuture.completedFuture(List.of(catResponseDTO)));
+
+        catService.listCatsAsync().join();
+
+        verify(snapshotStore).putCats(List.of(catResponseDTO));
+    }
+
+    @Test
+    void givenUpstreamRejectsRequest_whenGetCat_thenThrowInsteadOfServingSnapshot() {
+        when(crudService.getCat("1")).thenThrow(new CatRequestRejectedException());
+        when(snapshotStore.findCat("1")).thenReturn(Optional.of(catResponseDTO));
+
+        assertThrows(CatRequestRejectedException.class, () -> catService.getCat("1"));
+        verify(snapshotStore, never()).findCat("1");
+    }
+
+    @Test
+    void givenUpstreamFailure_andNoSnapshot_whenListCats_thenThrowException() {
+        when(crudService.listCats()).thenThrow(new CatUnknownErrorException());
+
+        assertThrows(CatUnknownErrorException.class, () -> catService.listCats());
+    }
+
+    @Test
+    void givenSnapshot_whenCatServiceStarts_thenCacheIsPrewarmed() {
+        when(snapshotStore.freshCats(Duration.ofMinutes(1))).thenReturn(List.of(new CatSnapshotStore.Aged<>(catResponseDTO, Duration.ofSeconds(10))));
+        var prewarmed = new CatService(crudService, mock(AsyncCrudService.class), true, 100, Duration.ofMinutes(1), Duration.ofMinutes(1), snapshotStore, new SimpleMeterRegistry());
+
+        assertEquals(catResponseDTO, prewarmed.getCat("1"));
+        verify(crudService, never()).getCat("1");
+    }
+
+    @Test
+    void givenSnapshotCatNearlyAsOldAsTtl_whenCatServiceStarts_thenItExpiresWithTheRestOfItsTtl() throws InterruptedException {
+        when(snapshotStore.freshCats(Duration.ofMinutes(1))).thenReturn(List.of(new CatSnapshotStore.Aged<>(catResponseDTO, Duration.ofMinutes(1).minusMillis(50))));
+        when(crudService.getCat("1")).thenReturn(new CatResponseDTO("1", "Smith", "Black", 7.0));
+        var prewarmed = new CatService(crudService, mock(AsyncCrudService.class), true, 100, Duration.ofMinutes(1), Duration.ofMinutes(1), snapshotStore, new SimpleMeterRegistry());
+
+        Thread.sleep(100);
+
+        assertEquals(7.0, prewarmed.getCat("1").weight());
+        verify(crudService).getCat("1");
+    }
+
+    @Test
+    void givenCachedCat_whenGetCatWithETag_thenETagIsStableUntilUpdate() {
+        when(crudService.getCat("1")).thenReturn(catResponseDTO);
+
+        var first = catService.getCatWithETag("1");
+        var second = catService.getCatWithETag("1");
+        catService.updateCat("1", catRequestDTO.withWeight(7.0));
+        var updated = catService.getCatWithETag("1");
+
+        assertAll(
+                () -> Assertions.assertEquals(first.eTag(), second.eTag()),
+                () -> Assertions.assertNotEquals(first.eTag(), updated.eTag()),
+                () -> Assertions.assertEquals(7.0, updated.body().weight())
+        );
+        verify(crudService, times(1)).getCat("1");
+    }
+
+    @Test
+    void givenSameCats_whenListCatsWithETag_thenETagDependsOnlyOnContent() {
+        var uncached = new CatService(crudService, mock(AsyncCrudService.class), false, 100, Duration.ofMinutes(1), Duration.ofMinutes(1), snapshotStore, new SimpleMeterRegistry());
+        when(crudService.listCats()).thenReturn(List.of(catResponseDTO)).thenReturn(List.of(catResponseDTO)).thenReturn(List.of());
+
+        var first = uncached.listCatsWithETag();
+        var second = uncached.listCatsWithETag();
+        var empty = uncached.listCatsWithETag();
+
+        assertEquals(first.eTag(), second.eTag());
+        assertNotEquals(first.eTag(), empty.eTag());
+    }
+}
@@ -0,0 +1,134 @@
+package com.jvnyor.demorestclient.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatSnapshotStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    private Path path;
+
+    private CatResponseDTO smith;
+
+    private CatResponseDTO barry;
+
+    @BeforeEach
+    void setUp() {
+        this.path = directory.resolve("cats.log");
+        this.smith = new CatResponseDTO("1", "Smith", "Black", 6.0);
+        this.barry = new CatResponseDTO("2", "Barry", "White", 7.5);
+    }
+
+    @Test
+    void givenRecordedCats_whenRestarted_thenSnapshotIsReloaded() {
+        var heavierSmith = new CatResponseDTO("1", "Smith", "Black", 6.5);
+        var store = store(Clock.systemUTC());
+        store.putCats(List.of(smith, barry));
+        store.putCat(heavierSmith);
+        store.removeCat("2");
+        store.close();
+
+        var reloaded = store(Clock.systemUTC());
+
+        assertAll(
+                () -> assertEquals(Optional.of(heavierSmith), reloaded.findCat("1")),
+                () -> assertEquals(Optional.empty(), reloaded.findCat("2")),
+                () -> assertEquals(Optional.of(List.of(heavierSmith)), reloaded.findCats())
+        );
+    }
+
+    @Test
+    void givenTruncatedLastRecord_whenRestarted_thenEarlierRecordsAreKept() throws IOException {
+        var store = store(Clock.systemUTC());
+        store.putCat(smith);
+        store.close();
+        Files.writeString(path, "{\"op\":\"put\",\"timestamp\":1,\"cat\":{\"_id\":\"2\",\"na", StandardOpenOption.APPEND);
+
+        var reloaded = store(Clock.systemUTC());
+
+        assertEquals(Optional.of(smith), reloaded.findCat("1"));
+        assertEquals(1, reloaded.size());
+    }
+
+    @Test
+    void givenSnapshotOlderThanMaxStaleness_whenFindCat_thenReturnEmpty() {
+        var now = Instant.parse("2024-01-01T00:00:00Z");
+        var store = store(Clock.fixed(now, ZoneOffset.UTC));
+        store.putCat(smith);
+        store.close();
+
+        var later = store(Clock.fixed(now.plus(Duration.ofHours(2)), ZoneOffset.UTC));
+
+        assertEquals(Optional.empty(), later.findCat("1"));
+        assertTrue(later.freshCats(Duration.ofHours(1)).isEmpty());
+    }
+
+    @Test
+    void givenRecordedCats_whenFreshCats_thenOnlyCatsYoungerThanMaxAgeAreReturnedWithTheirAge() {
+        var now = Instant.parse("2024-01-01T00:00:00Z");
+        var store = store(Clock.fixed(now, ZoneOffset.UTC));
+        store.putCats(List.of(smith));
+        store.close();
+
+        var later = store(Clock.fixed(now.plus(Duration.ofSeconds(20)), ZoneOffset.UTC));
+
+        assertAll(
+                () -> assertEquals(List.of(new CatSnapshotStore.Aged<>(smith, Duration.ofSeconds(20))), later.freshCats(Duration.ofSeconds(30))),
+                () -> assertEquals(Optional.of(new CatSnapshotStore.Aged<>(List.of(smith), Duration.ofSeconds(20))), later.freshCatList(Duration.ofSeconds(30))),
+                () -> assertTrue(later.freshCats(Duration.ofSeconds(10)).isEmpty()),
+                () -> assertEquals(Optional.empty(), later.freshCatList(Duration.ofSeconds(10)))
+        );
+    }
+
+    @Test
+    void givenUnchangedList_whenPutCatsAgain_thenOnlyAListMarkerIsAppended() throws IOException {
+        var store = store(Clock.systemUTC());
+        store.putCats(List.of(smith, barry));
+        store.close();
+        var compacted = Files.readAllLines(path).size();
+
+        var reopened = store(Clock.systemUTC());
+        reopened.putCats(List.of(smith, barry));
+        reopened.putCats(List.of(smith));
+        reopened.close();
+
+        var lines = Files.readAllLines(path);
+        assertAll(
+                () -> assertEquals(compacted + 3, lines.size()),
+                () -> assertEquals(Optional.of(List.of(smith)), store(Clock.systemUTC()).findCats())
+        );
+    }
+
+    @Test
+    void givenDisabledStore_whenPutCat_thenNothingIsRecorded() {
+        var store = new CatSnapshotStore(false, path, Duration.ofHours(1), new ObjectMapper(), new SimpleMeterRegistry(), Clock.systemUTC());
+
+        store.putCat(smith);
+
+        assertEquals(Optional.empty(), store.findCat("1"));
+        assertFalse(Files.exists(path));
+    }
+
+    private CatSnapshotStore store(Clock clock) {
+        return new CatSnapshotStore(true, path, Duration.ofHours(1), new ObjectMapper(), new SimpleMeterRegistry(), clock);
+    }
+}
@@ -0,0 +1,200 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.dtos.CatRequestDTO;
+import com.jvnyor.demorestclient.services.exceptions.CatRequestRejectedException;
+import com.jvnyor.demorestclient.services.exceptions.CatUnknownErrorException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpdateQueueFullException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CatWriteBehindServiceTest {
+
+    private CatService catService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CatRequestDTO catRequestDTO;
+
+    private AtomicLong nanoTime;
+
+    @BeforeEach
+    void setUp() {
+        this.catService = mock(CatService.class);
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.catRequestDTO = new CatRequestDTO("Smith", "Black", 6.0);
+        this.nanoTime = new AtomicLong();
+    }
+
+    @Test
+    void givenSeveralUpdatesToSameID_whenFlush_thenOnlyLastOneIsWritten() {
+        var catWriteBehindService = catWriteBehindService(100);
+
+        catWriteBehindService.updateCat("1", catRequestDTO.withWeight(6.5));
+        catWriteBehindService.updateCat("1", catRequestDTO.withWeight(7.0));
+        catWriteBehindService.updateCat("2", catRequestDTO);
+        catWriteBehindService.flush();
+
+        verify(catService).updateCat("1", catRequestDTO.withWeight(7.0));
+        verify(catService).updateCat("2", catRequestDTO);
+        verify(catService, times(2)).updateCat(anyString(), any());
+        assertEquals(1.0, meterRegistry.get(CatWriteBehindService.COALESCED_METRIC).counter().count());
+        assertEquals(0.0, meterRegistry.get(CatWriteBehindService.QUEUE_DEPTH_METRIC).gauge().value());
+        assertEquals(2, meterRegistry.get(CatWriteBehindService.FLUSH_LAG_METRIC).tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void givenBatchSizeReached_whenUpdateCat_thenFlushIsTriggered() {
+        var catWriteBehindService = catWriteBehindService(2);
+
+        catWriteBehindService.updateCat("1", catRequestDTO);
+        catWriteBehindService.updateCat("2", catRequestDTO);
+
+        verify(catService, timeout(5000)).updateCat("1", catRequestDTO);
+        verify(catService, timeout(5000)).updateCat("2", catRequestDTO);
+        catWriteBehindService.close();
+    }
+
+    @Test
+    void givenUpstreamUnavailable_whenFlush_thenUpdateIsRetriedNotBeforeRetryAfter() {
+        var catWriteBehindService = catWriteBehindService(100);
+        doThrow(new CatUpstreamUnavailableException(Duration.ofSeconds(10))).doNothing().when(catService).updateCat("1", catRequestDTO);
+
+        catWriteBehindService.updateCat("1", catRequestDTO);
+        catWriteBehindService.flush();
+        advance(Duration.ofSeconds(9));
+        catWriteBehindService.flush();
+
+        verify(catService).updateCat("1", catRequestDTO);
+        assertEquals(1.0, meterRegistry.get(CatWriteBehindService.QUEUE_DEPTH_METRIC).gauge().value());
+
+        advance(Duration.ofSeconds(1));
+        catWriteBehindService.flush();
+
+        verify(catService, times(2)).updateCat("1", catRequestDTO);
+        assertEquals(0.0, meterRegistry.get(CatWriteBehindService.QUEUE_DEPTH_METRIC).gauge().value());
+    }
+
+    @Test
+    void givenUpstreamServerOrIOError_whenFlush_thenUpdateIsRetriedWithBackoff() {
+        var catWriteBehindService = catWriteBehindService(100);
+        doThrow(new CatUnknownErrorException()).doThrow(new ResourceAccessException("Read timed out")).doNothing()
+                .when(catService).updateCat("1", catRequestDTO);
+
+        catWriteBehindService.updateCat("1", catRequestDTO);
+        catWriteBehindService.flush();
+        advance(Duration.ofSeconds(1));
+        catWriteBehindService.flush();
+        advance(Duration.ofSeconds(1));
+        catWriteBehindService.flush();
+
+        verify(catService, times(2)).updateCat("1", catRequestDTO);
+
+        advance(Duration.ofSeconds(1));
+        catWriteBehindService.flush();
+
+        verify(catService, times(3)).updateCat("1", catRequestDTO);
+        verify(catService, never()).evictCat(anyString());
+        assertEquals(2, meterRegistry.get(CatWriteBehindService.FLUSH_LAG_METRIC).tag("outcome", "requeued").timer().count());
+    }
+
+    @Test
+    void givenUpstreamRejectsUpdate_whenFlush_thenUpdateIsDroppedAndEvicted() {
+        var catWriteBehindService = catWriteBehindService(100);
+        doThrow(new CatRequestRejectedException()).when(catService).updateCat("1", catRequestDTO);
+
+        catWriteBehindService.updateCat("1", catRequestDTO);
+        catWriteBehindService.flush();
+        advance(Duration.ofMinutes(1));
+        catWriteBehindService.flush();
+
+        verify(catService).updateCat("1", catRequestDTO);
+        verify(catService).evictCat("1");
+        assertEquals(0.0, meterRegistry.get(CatWriteBehindService.QUEUE_DEPTH_METRIC).gauge().value());
+        assertEquals(1, meterRegistry.get(CatWriteBehindService.FLUSH_LAG_METRIC).tag("outcome", "rejected").timer().count());
+    }
+
+    @Test
+    void givenQueuedUpdates_whenClose_thenTheyAreFlushed() {
+        var catWriteBehindService = catWriteBehindService(100);
+
+        catWriteBehindService.updateCat("1", catRequestDTO);
+        catWriteBehindService.close();
+
+        verify(catService).updateCat("1", catRequestDTO);
+    }
+
+    @Test
+    void givenQueuedUpdate_whenUpdateCat_thenItIsCachedBeforeFlush() {
+        var catWriteBehindService = catWriteBehindService(100);
+
+        catWriteBehindService.updateCat("1", catRequestDTO);
+
+        verify(catService).cacheUpdate("1", catRequestDTO);
+        verify(catService, never()).updateCat(anyString(), any());
+    }
+
+    @Test
+    void givenQueueFull_whenUpdateCatWithNewID_thenRejectUnlessItCoalesces() {
+        var catWriteBehindService = catWriteBehindService(100, 2, Duration.ofMinutes(1));
+        catWriteBehindService.updateCat("1", catRequestDTO);
+        catWriteBehindService.updateCat("2", catRequestDTO);
+
+        var exception = assertThrows(CatUpdateQueueFullException.class, () -> catWriteBehindService.updateCat("3", catRequestDTO));
+        assertDoesNotThrow(() -> catWriteBehindService.updateCat("1", catRequestDTO.withWeight(7.0)));
+        assertAll(
+                () -> assertEquals(Duration.ofHours(1), exception.getRetryAfter()),
+                () -> assertEquals(2.0, meterRegistry.get(CatWriteBehindService.QUEUE_DEPTH_METRIC).gauge().value()),
+                () -> verify(catService, never()).cacheUpdate("3", catRequestDTO)
+        );
+    }
+
+    @Test
+    void givenUpstreamStillUnavailable_whenMaxRetryTimePassed_thenUpdateIsDroppedAndEvicted() {
+        var catWriteBehindService = catWriteBehindService(100, 100, Duration.ofSeconds(15));
+        doThrow(new CatUpstreamUnavailableException(Duration.ofSeconds(10))).when(catService).updateCat("1", catRequestDTO);
+
+        catWriteBehindService.updateCat("1", catRequestDTO);
+        for (int second = 0; second <= 20; second++) {
+            catWriteBehindService.flush();
+            advance(Duration.ofSeconds(1));
+        }
+
+        // At 0s, after the Retry-After at 10s, and at the end of the retry time
+        verify(catService, times(3)).updateCat("1", catRequestDTO);
+        verify(catService).evictCat("1");
+        assertEquals(0.0, meterRegistry.get(CatWriteBehindService.QUEUE_DEPTH_METRIC).gauge().value());
+        assertEquals(1, meterRegistry.get(CatWriteBehindService.FLUSH_LAG_METRIC).tag("outcome", "abandoned").timer().count());
+    }
+
+    @Test
+    void givenClosedService_whenUpdateCat_thenRejectAsUnavailable() {
+        var catWriteBehindService = catWriteBehindService(100);
+        catWriteBehindService.close();
+
+        assertThrows(CatUpstreamUnavailableException.class, () -> catWriteBehindService.updateCat("1", catRequestDTO));
+        verify(catService, never()).cacheUpdate(anyString(), any());
+    }
+
+    private CatWriteBehindService catWriteBehindService(int maxBatchSize) {
+        return catWriteBehindService(maxBatchSize, 10_000, Duration.ofMinutes(1));
+    }
+
+    private CatWriteBehindService catWriteBehindService(int maxBatchSize, int maxQueueDepth, Duration maxRetryTime) {
+        return new CatWriteBehindService(catService, true, maxBatchSize, Duration.ofHours(1), 4, maxQueueDepth, maxRetryTime, meterRegistry, nanoTime::get);
+    }
+
+    private void advance(Duration duration) {
+        nanoTime.addAndGet(duration.toNanos());
+    }
+}
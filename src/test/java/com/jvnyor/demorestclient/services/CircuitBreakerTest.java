@@ -0,0 +1,100 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatRequestRejectedException;
+import com.jvnyor.demorestclient.services.exceptions.CatUnknownErrorException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private AtomicLong clock;
+
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        this.clock = new AtomicLong();
+        this.circuitBreaker = new CircuitBreaker(4, 4, 0.5, Duration.ofSeconds(10), 2, clock::get);
+    }
+
+    @Test
+    void givenFailureRateAboveThreshold_whenExecute_thenOpenAndFailFast() {
+        succeed();
+        succeed();
+        fail();
+        fail();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        var exception = assertThrows(CatUpstreamUnavailableException.class, this::succeed);
+        assertEquals(Duration.ofSeconds(10), exception.getRetryAfter());
+    }
+
+    @Test
+    void givenNotFoundResponses_whenExecute_thenStayClosed() {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(CatNotFoundException.class, () -> circuitBreaker.execute(() -> {
+                throw new CatNotFoundException();
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+    }
+
+    @Test
+    void givenRejectedRequests_whenExecute_thenStayClosed() {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(CatRequestRejectedException.class, () -> circuitBreaker.execute(() -> {
+                throw new CatRequestRejectedException();
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+    }
+
+    @Test
+    void givenOpenCircuit_whenOpenDurationElapsesAndTrialCallsSucceed_thenClose() {
+        openCircuit();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        succeed();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.state());
+        succeed();
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+    }
+
+    @Test
+    void givenHalfOpenCircuit_whenTrialCallFails_thenOpenAgain() {
+        openCircuit();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        fail();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        assertThrows(CatUpstreamUnavailableException.class, this::succeed);
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+    }
+
+    private void succeed() {
+        circuitBreaker.execute(() -> "Smith");
+    }
+
+    private void fail() {
+        assertThrows(CatUnknownErrorException.class, () -> circuitBreaker.execute(() -> {
+            throw new CatUnknownErrorException();
+        }));
+    }
+}
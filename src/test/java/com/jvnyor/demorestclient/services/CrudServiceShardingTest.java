@@ -0,0 +1,113 @@
+package com.jvnyor.demorestclient.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.demorestclient.dtos.CatRequestDTO;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withNoContent;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@RestClientTest(value = {CrudService.class, UpstreamEndpoints.class},
+        properties = "crud-crud.base.urls=http://localhost:8080/api/a,http://localhost:8080/api/b")
+class CrudServiceShardingTest {
+
+    @Autowired
+    private MockRestServiceServer server;
+
+    @Autowired
+    private CrudService crudService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private CatResponseDTO catResponseDTO;
+
+    @BeforeEach
+    void setUp() {
+        this.catResponseDTO = new CatResponseDTO("42", "Smith", "Black", 6.0);
+    }
+
+    @Test
+    void givenCatRequestDTO_whenCreateCat_thenReturnIdQualifiedWithTheEndpointItWasCreatedOn() {
+        var calledUrl = new AtomicReference<String>();
+        server.expect(requestTo(startsWith("http://localhost:8080/api/")))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(request -> {
+                    calledUrl.set(request.getURI().toString());
+                    return withSuccess(json(catResponseDTO), MediaType.APPLICATION_JSON).createResponse(request);
+                });
+
+        var created = crudService.createCat(new CatRequestDTO("Smith", "Black", 6.0));
+
+        var expectedId = calledUrl.get().equals("http://localhost:8080/api/a/cats") ? "0-42" : "1-42";
+        assertEquals(expectedId, created._id());
+    }
+
+    @Test
+    void givenQualifiedId_whenGetCat_thenCallTheEndpointHoldingTheCat() {
+        server.expect(requestTo("http://localhost:8080/api/b/cats/42"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(json(catResponseDTO), MediaType.APPLICATION_JSON));
+
+        assertEquals("1-42", crudService.getCat("1-42")._id());
+        server.verify();
+    }
+
+    @Test
+    void givenQualifiedAndUnqualifiedIds_whenUpdateAndDeleteCat_thenUnqualifiedIdsGoToTheFirstEndpoint() {
+        server.expect(requestTo("http://localhost:8080/api/b/cats/42"))
+                .andExpect(method(HttpMethod.PUT))
+                .andRespond(withNoContent());
+        server.expect(requestTo("http://localhost:8080/api/a/cats/42"))
+                .andExpect(method(HttpMethod.DELETE))
+                .andRespond(withNoContent());
+
+        crudService.updateCat("1-42", new CatRequestDTO("Smith", "Black", 7.0));
+        crudService.deleteCat("42");
+
+        server.verify();
+    }
+
+    @Test
+    void givenCatsOnEveryEndpoint_whenListCats_thenMergeThemWithQualifiedIds() {
+        var barry = new CatResponseDTO("7", "Barry", "White", 7.5);
+        // The endpoints are listed in parallel, so answer by URL rather than by the order of the requests
+        server.expect(ExpectedCount.times(2), requestTo(startsWith("http://localhost:8080/api/")))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(request -> withSuccess(
+                        json(request.getURI().getPath().startsWith("/api/a") ? new CatResponseDTO[]{catResponseDTO} : new CatResponseDTO[]{barry}),
+                        MediaType.APPLICATION_JSON).createResponse(request));
+
+        var cats = crudService.listCats();
+
+        assertEquals(List.of(
+                new CatResponseDTO("0-42", "Smith", "Black", 6.0),
+                new CatResponseDTO("1-7", "Barry", "White", 7.5)
+        ), cats);
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
@@ -5,7 +5,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jvnyor.demorestclient.dtos.CatRequestDTO;
 import com.jvnyor.demorestclient.dtos.CatResponseDTO;
 import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatRequestRejectedException;
 import com.jvnyor.demorestclient.services.exceptions.CatUnknownErrorException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamBusyException;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,12 +19,18 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.client.MockRestServiceServer;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
 
-@RestClientTest(CrudService.class)
+@RestClientTest({CrudService.class, UpstreamEndpoints.class})
 class CrudServiceTest {
 
     @Autowired
@@ -93,6 +102,36 @@ class CrudServiceTest {
         assertThrows(CatNotFoundException.class, () -> crudService.getCat("1"));
     }
 
+    @Test
+    void givenClientErrorStatus_whenGetCat_thenThrowRejectedException() {
+        server.expect(requestTo("http://localhost:8080/api/v1/cats/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withBadRequest());
+
+        assertThrows(CatRequestRejectedException.class, () -> crudService.getCat("1"));
+    }
+
+    @Test
+    void givenTooManyRequestsStatus_whenGetCat_thenThrowUnknownErrorException() {
+        server.expect(requestTo("http://localhost:8080/api/v1/cats/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withTooManyRequests());
+
+        var exception = assertThrows(CatUnknownErrorException.class, () -> crudService.getCat("1"));
+        assertFalse(exception instanceof CatRequestRejectedException);
+    }
+
+    @Test
+    void givenPooledConnectionLeaseTimesOut_whenGetCat_thenThrowBusyException() {
+        server.expect(requestTo("http://localhost:8080/api/v1/cats/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(request -> {
+                    throw new ConnectionRequestTimeoutException("Timeout deadline: 1000 MILLISECONDS");
+                });
+
+        assertThrows(CatUpstreamBusyException.class, () -> crudService.getCat("1"));
+    }
+
     @Test
     void givenExistingID_whenGetCat_butRequestFail_thenThrowException() {
         server.expect(requestTo("http://localhost:8080/api/v1/cats/1"))
@@ -197,4 +236,66 @@ class CrudServiceTest {
 
         assertThrows(CatUnknownErrorException.class, () -> crudService.listCats());
     }
-}
\ No newline at end of file
+
+    @Test
+    void givenRequest_whenStreamCats_thenConsumeEveryCatResponseDTO() throws JsonProcessingException {
+        var barry = new CatResponseDTO("2", "Barry", "White", 7.5);
+        server.expect(requestTo("http://localhost:8080/api/v1/cats"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(objectMapper.writeValueAsString(new CatResponseDTO[]{catResponseDTO, barry}), MediaType.APPLICATION_JSON));
+
+        var catResponseDTOList = new ArrayList<CatResponseDTO>();
+        crudService.streamCats(catResponseDTOList::add);
+
+        assertEquals(List.of(catResponseDTO, barry), catResponseDTOList);
+    }
+
+    @Test
+    void givenRequest_whenStreamCats_butRequestFail_thenThrowException() {
+        server.expect(requestTo("http://localhost:8080/api/v1/cats"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withServerError());
+
+        assertThrows(CatUnknownErrorException.class, () -> crudService.streamCats(catResponseDTO -> fail()));
+    }
+
+    @Test
+    void givenConsumerFails_whenStreamCats_thenConsumerExceptionIsPropagatedAsIs() throws JsonProcessingException {
+        server.expect(requestTo("http://localhost:8080/api/v1/cats"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(objectMapper.writeValueAsString(new CatResponseDTO[]{catResponseDTO, catResponseDTO}), MediaType.APPLICATION_JSON));
+
+        var clientGone = new UncheckedIOException(new IOException("Broken pipe"));
+        assertSame(clientGone, assertThrows(UncheckedIOException.class, () -> crudService.streamCats(catResponseDTO -> {
+            throw clientGone;
+        })));
+    }
+
+    @Test
+    void givenExistingID_whenGetCatRaw_thenReturnUpstreamBytesUnchanged() {
+        var body = "{\"_id\":\"1\",\"name\":\"Smith\",\"color\":\"Black\",\"weight\":6.0,\"extra\":true}";
+        server.expect(requestTo("http://localhost:8080/api/v1/cats/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+
+        assertEquals(body, new String(crudService.getCatRaw("1"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void givenNonExistentID_whenGetCatRaw_thenThrowCatNotFoundException() {
+        server.expect(requestTo("http://localhost:8080/api/v1/cats/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withResourceNotFound());
+
+        assertThrows(CatNotFoundException.class, () -> crudService.getCatRaw("1"));
+    }
+
+    @Test
+    void givenRequest_whenListCatsRaw_butRequestFail_thenThrowException() {
+        server.expect(requestTo("http://localhost:8080/api/v1/cats"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withServerError());
+
+        assertThrows(CatUnknownErrorException.class, () -> crudService.listCatsRaw());
+    }
+}
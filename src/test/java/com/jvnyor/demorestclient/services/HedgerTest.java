@@ -0,0 +1,94 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void givenFastCall_whenExecute_thenNoHedgeIsSent() {
+        var hedger = new Hedger("get", 0.95, Duration.ofMillis(1), Duration.ofSeconds(1), 1.0, meterRegistry);
+        var calls = new AtomicInteger();
+
+        assertEquals("Smith", hedger.execute(() -> {
+            calls.incrementAndGet();
+            return "Smith";
+        }));
+
+        assertEquals(1, calls.get());
+        assertEquals(0, count("crud.upstream.hedge.requests"));
+    }
+
+    @Test
+    void givenSlowFirstCall_whenExecute_thenHedgeWinsAndSlowCallIsCancelled() throws InterruptedException {
+        var hedger = new Hedger("get", 0.95, Duration.ofMillis(1), Duration.ofMillis(20), 1.0, meterRegistry);
+        var calls = new AtomicInteger();
+        var slowCallInterrupted = new CountDownLatch(1);
+
+        var result = hedger.execute(() -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(Duration.ofSeconds(10));
+                } catch (InterruptedException exception) {
+                    slowCallInterrupted.countDown();
+                }
+                return "slow";
+            }
+            return "fast";
+        });
+
+        assertEquals("fast", result);
+        assertEquals(1, count("crud.upstream.hedge.requests"));
+        assertEquals(1, count("crud.upstream.hedge.wins"));
+        assertTrue(slowCallInterrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void givenExhaustedBudget_whenExecute_thenWaitForFirstCall() {
+        var hedger = new Hedger("get", 0.95, Duration.ofMillis(1), Duration.ofMillis(5), 0.0, meterRegistry);
+        var calls = new AtomicInteger();
+
+        var result = hedger.execute(() -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return "Smith";
+        });
+
+        assertEquals("Smith", result);
+        assertEquals(1, calls.get());
+        assertEquals(1, count("crud.upstream.hedge.budget-exhausted"));
+    }
+
+    @Test
+    void givenNotFound_whenExecute_thenExceptionIsPropagated() {
+        var hedger = new Hedger("get", 0.95, Duration.ofMillis(1), Duration.ofSeconds(1), 1.0, meterRegistry);
+
+        assertThrows(CatNotFoundException.class, () -> hedger.execute(() -> {
+            throw new CatNotFoundException();
+        }));
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+}
@@ -0,0 +1,63 @@
+package com.jvnyor.demorestclient.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SampledRequestLoggingInterceptorTest {
+
+    private Logger logger;
+
+    private ClientHttpRequestExecution execution;
+
+    private MockClientHttpRequest request;
+
+    private byte[] body;
+
+    @BeforeEach
+    void setUp() {
+        this.logger = mock(Logger.class);
+        when(logger.isInfoEnabled()).thenReturn(true);
+        this.execution = mock(ClientHttpRequestExecution.class);
+        this.request = new MockClientHttpRequest(HttpMethod.POST, URI.create("http://localhost:8080/api/v1/cats"));
+        this.body = "{\"name\":\"Smith\"}".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void givenZeroSampleRate_whenIntercept_thenNothingIsLogged() throws IOException {
+        new SampledRequestLoggingInterceptor(logger, 0.0, 64).intercept(request, body, execution);
+
+        verify(logger, never()).info(anyString(), any(Object[].class));
+        verify(logger, never()).info(anyString(), any(), any());
+        verify(execution).execute(request, body);
+    }
+
+    @Test
+    void givenBodyLoggingDisabled_whenIntercept_thenOnlyUriIsLogged() throws IOException {
+        new SampledRequestLoggingInterceptor(logger, 1.0, 0).intercept(request, body, execution);
+
+        verify(logger).info("{}: Request URI: {}", HttpMethod.POST, request.getURI());
+        verify(execution).execute(request, body);
+    }
+
+    @Test
+    void givenBodyLongerThanMaxLength_whenIntercept_thenBodyIsTruncated() throws IOException {
+        new SampledRequestLoggingInterceptor(logger, 1.0, 8).intercept(request, body, execution);
+
+        var loggedBody = ArgumentCaptor.forClass(Object.class);
+        verify(logger).info(eq("{}: Request URI: {}, Request Body: {}"), eq(HttpMethod.POST), eq(request.getURI()), loggedBody.capture());
+        assertEquals("{\"name\":... (16 bytes)", loggedBody.getValue().toString());
+    }
+}
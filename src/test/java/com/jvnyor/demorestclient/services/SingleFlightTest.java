@@ -0,0 +1,148 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int FOLLOWERS = 8;
+
+    @Test
+    void givenConcurrentCallsForSameKey_whenExecute_thenUpstreamIsCalledOnceAndResultIsShared() throws Exception {
+        var singleFlight = new SingleFlight();
+        var calls = new AtomicInteger();
+        var release = new CountDownLatch(1);
+
+        var futures = startConcurrentCalls(singleFlight, () -> {
+            calls.incrementAndGet();
+            awaitQuietly(release);
+            return "Smith";
+        });
+        release.countDown();
+
+        for (var future : futures) {
+            assertEquals("Smith", future.get());
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void givenConcurrentCallsForSameKey_whenLeaderFails_thenExceptionIsPropagatedToFollowers() throws Exception {
+        var singleFlight = new SingleFlight();
+        var calls = new AtomicInteger();
+        var release = new CountDownLatch(1);
+
+        var futures = startConcurrentCalls(singleFlight, () -> {
+            calls.incrementAndGet();
+            awaitQuietly(release);
+            throw new CatNotFoundException();
+        });
+        release.countDown();
+
+        for (var future : futures) {
+            var exception = assertThrows(ExecutionException.class, future::get);
+            assertInstanceOf(CatNotFoundException.class, exception.getCause());
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void givenCompletedCall_whenExecuteAgain_thenUpstreamIsCalledAgain() {
+        var singleFlight = new SingleFlight();
+        var calls = new AtomicInteger();
+
+        singleFlight.execute("GET /cats", calls::incrementAndGet);
+        singleFlight.execute("GET /cats", calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void givenAsyncCallInFlight_whenExecuteAndExecuteAsyncForSameKey_thenTheyShareItsResult() throws Exception {
+        var singleFlight = new SingleFlight();
+        var calls = new AtomicInteger();
+        var upstream = new CompletableFuture<String>();
+
+        var leader = singleFlight.executeAsync("GET /cats/1", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        var asyncFollower = singleFlight.executeAsync("GET /cats/1", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("Barry");
+        });
+        var blockingFollower = new FutureTask<>(() -> singleFlight.execute("GET /cats/1", () -> {
+            calls.incrementAndGet();
+            return "Barry";
+        }));
+        var blockingThread = Thread.ofPlatform().start(blockingFollower);
+        while (blockingThread.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        upstream.complete("Smith");
+
+        assertAll(
+                () -> assertEquals("Smith", leader.get()),
+                () -> assertEquals("Smith", asyncFollower.get()),
+                () -> assertEquals("Smith", blockingFollower.get()),
+                () -> assertEquals(1, calls.get())
+        );
+    }
+
+    @Test
+    void givenAsyncCallInFlight_whenLeaderFails_thenFollowerGetsTheUnwrappedException() {
+        var singleFlight = new SingleFlight();
+        var upstream = new CompletableFuture<String>();
+        singleFlight.executeAsync("GET /cats/1", () -> upstream.thenApply(cat -> cat));
+        var follower = singleFlight.<String>executeAsync("GET /cats/1", CompletableFuture::new);
+
+        upstream.completeExceptionally(new CatNotFoundException());
+
+        var exception = assertThrows(ExecutionException.class, follower::get);
+        assertInstanceOf(CatNotFoundException.class, exception.getCause());
+    }
+
+    private static ArrayList<Future<String>> startConcurrentCalls(SingleFlight singleFlight, Supplier<String> call) throws InterruptedException {
+        var leaderStarted = new CountDownLatch(1);
+        var futures = new ArrayList<Future<String>>();
+        var leader = new FutureTask<>(() -> singleFlight.execute("GET /cats/1", () -> {
+            leaderStarted.countDown();
+            return call.get();
+        }));
+        futures.add(leader);
+        Thread.ofVirtual().start(leader);
+        leaderStarted.await();
+
+        var followerThreads = new ArrayList<Thread>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            var follower = new FutureTask<>(() -> singleFlight.execute("GET /cats/1", call));
+            futures.add(follower);
+            followerThreads.add(Thread.ofPlatform().start(follower));
+        }
+        for (var followerThread : followerThreads) {
+            while (followerThread.getState() != Thread.State.WAITING) {
+                Thread.onSpinWait();
+            }
+        }
+        return futures;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
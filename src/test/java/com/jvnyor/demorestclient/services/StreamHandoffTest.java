@@ -0,0 +1,64 @@
+package com.jvnyor.demorestclient.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamHandoffTest {
+
+    @Test
+    void givenProducerFasterThanBuffer_whenDrainTo_thenConsumerReceivesEveryItemInOrder() throws InterruptedException {
+        var handoff = new StreamHandoff<Integer>(2, Duration.ofSeconds(5));
+        var producer = Thread.ofVirtual().start(() -> {
+            for (int i = 0; i < 100; i++) {
+                handoff.offer(i);
+            }
+            handoff.complete();
+        });
+
+        var received = new ArrayList<Integer>();
+        assertTrue(handoff.drainTo(received::add));
+
+        producer.join();
+        assertEquals(100, received.size());
+        assertEquals(List.of(0, 1, 2), received.subList(0, 3));
+    }
+
+    @Test
+    void givenConsumerFails_whenDrainTo_thenProducerIsToldToStop() throws InterruptedException {
+        var handoff = new StreamHandoff<Integer>(1, Duration.ofSeconds(30));
+        var offered = new AtomicInteger();
+        var producer = Thread.ofVirtual().start(() -> {
+            while (handoff.offer(offered.get())) {
+                offered.incrementAndGet();
+            }
+            handoff.complete();
+        });
+
+        assertThrows(IllegalStateException.class, () -> handoff.drainTo(item -> {
+            throw new IllegalStateException();
+        }));
+
+        producer.join(Duration.ofSeconds(5));
+        assertFalse(producer.isAlive());
+        assertTrue(offered.get() <= 3);
+    }
+
+    @Test
+    void givenConsumerStallsLongerThanTimeout_whenOffer_thenProducerStopsAndDrainReportsIncompleteStream() throws InterruptedException {
+        var handoff = new StreamHandoff<Integer>(1, Duration.ofMillis(50));
+        assertTrue(handoff.offer(1));
+
+        assertFalse(handoff.offer(2));
+        handoff.complete();
+
+        var received = new ArrayList<Integer>();
+        assertFalse(handoff.drainTo(received::add));
+        assertEquals(List.of(1), received);
+    }
+}
@@ -0,0 +1,124 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.services.exceptions.CatRequestRejectedException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamBusyException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamBulkheadTest {
+
+    @Test
+    void givenFreePermit_whenExecute_thenReturnResult() {
+        var bulkhead = new UpstreamBulkhead(1, Duration.ZERO);
+
+        assertEquals("Smith", bulkhead.execute(() -> "Smith"));
+        assertEquals("Barry", bulkhead.execute(() -> "Barry"));
+    }
+
+    @Test
+    void givenAllPermitsTaken_whenQueueTimeoutElapses_thenThrowException() throws InterruptedException {
+        var bulkhead = new UpstreamBulkhead(1, Duration.ofMillis(50));
+        var acquired = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var holder = Thread.ofVirtual().start(() -> bulkhead.execute(() -> {
+            acquired.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        acquired.await();
+
+        assertThrows(CatUpstreamBusyException.class, () -> bulkhead.execute(() -> "Smith"));
+
+        release.countDown();
+        holder.join();
+        assertEquals("Smith", bulkhead.execute(() -> "Smith"));
+    }
+
+    @Test
+    void givenCallFails_whenExecute_thenPermitIsReleased() {
+        var bulkhead = new UpstreamBulkhead(1, Duration.ZERO);
+
+        assertThrows(IllegalStateException.class, () -> bulkhead.execute(() -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals("Smith", bulkhead.execute(() -> "Smith"));
+    }
+
+    @Test
+    void givenAdaptiveLimit_whenCallsAreSlowOrFail_thenLimitBacksOff() {
+        var bulkhead = new UpstreamBulkhead(10, Duration.ZERO, new AimdLimit(2, 20, Duration.ofMillis(10), 0.5));
+
+        assertThrows(IllegalStateException.class, () -> bulkhead.execute(() -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals(5, bulkhead.limit());
+
+        bulkhead.execute(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        assertEquals(2, bulkhead.limit());
+
+        bulkhead.execute(() -> "Smith");
+        assertEquals(3, bulkhead.limit());
+    }
+
+    @Test
+    void givenAdaptiveLimit_whenUntimedCallIsSlow_thenLimitIsKept() {
+        var bulkhead = new UpstreamBulkhead(10, Duration.ZERO, new AimdLimit(2, 20, Duration.ofMillis(10), 0.5));
+
+        bulkhead.execute(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }, false);
+        assertEquals(10, bulkhead.limit());
+
+        assertThrows(IllegalStateException.class, () -> bulkhead.execute(() -> {
+            throw new IllegalStateException();
+        }, false));
+        assertEquals(5, bulkhead.limit());
+    }
+
+    @Test
+    void givenAdaptiveLimit_whenUpstreamRejectsRequest_thenLimitIsNotShrunk() {
+        var bulkhead = new UpstreamBulkhead(10, Duration.ZERO, new AimdLimit(2, 20, Duration.ofMillis(10), 0.5));
+
+        assertThrows(CatRequestRejectedException.class, () -> bulkhead.execute(() -> {
+            throw new CatRequestRejectedException();
+        }));
+
+        assertEquals(10, bulkhead.limit());
+    }
+
+    @Test
+    void givenAdaptiveLimit_whenNoPooledConnectionCanBeLeased_thenLimitIsKept() {
+        var bulkhead = new UpstreamBulkhead(10, Duration.ZERO, new AimdLimit(2, 20, Duration.ofMillis(10), 0.5));
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(CatUpstreamBusyException.class, () -> bulkhead.execute(() -> {
+                throw new CatUpstreamBusyException();
+            }));
+        }
+
+        assertAll(
+                () -> assertEquals(10, bulkhead.limit()),
+                () -> assertEquals(0, bulkhead.inFlight())
+        );
+    }
+}
@@ -0,0 +1,111 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatRequestRejectedException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamBusyException;
+import com.jvnyor.demorestclient.services.exceptions.CatUnknownErrorException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamEndpointsTest {
+
+    private AtomicLong clock;
+
+    private UpstreamEndpoints endpoints;
+
+    @BeforeEach
+    void setUp() {
+        this.clock = new AtomicLong();
+        this.endpoints = new UpstreamEndpoints(List.of("http://a/api", "http://b/api"), 2, Duration.ofSeconds(30), clock::get);
+    }
+
+    @Test
+    void givenSingleEndpoint_whenQualifyAndRoute_thenIdsAreLeftAsTheyAre() {
+        var single = new UpstreamEndpoints(List.of("http://a/api"), 2, Duration.ofSeconds(30), clock::get);
+
+        assertAll(
+                () -> assertEquals("60f1", single.qualify(0, "60f1")),
+                () -> assertEquals(new UpstreamEndpoints.Route(0, "1-60f1"), single.route("1-60f1"))
+        );
+    }
+
+    @Test
+    void givenQualifiedId_whenRoute_thenResolveEndpointAndUpstreamId() {
+        var cat = endpoints.qualify(1, new CatResponseDTO("60f1", "Smith", "Black", 6.0));
+
+        assertAll(
+                () -> assertEquals("1-60f1", cat._id()),
+                () -> assertEquals(new UpstreamEndpoints.Route(1, "60f1"), endpoints.route(cat._id())),
+                () -> assertEquals(new UpstreamEndpoints.Route(0, "60f1"), endpoints.route("60f1")),
+                () -> assertEquals(new UpstreamEndpoints.Route(0, "7-60f1"), endpoints.route("7-60f1"))
+        );
+    }
+
+    @Test
+    void givenSlowerEndpoint_whenChoose_thenPickTheFasterOne() {
+        call(0, 50);
+        call(1, 10);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1, endpoints.choose());
+        }
+    }
+
+    @Test
+    void givenConsecutiveFailures_whenChoose_thenSkipEjectedEndpointUntilEjectionEnds() {
+        call(0, 1);
+        call(1, 10);
+        fail(0);
+        fail(0);
+
+        assertTrue(endpoints.ejected(0));
+        assertEquals(1, endpoints.choose());
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertFalse(endpoints.ejected(0));
+        assertEquals(0, endpoints.choose());
+    }
+
+    @Test
+    void givenNotFoundResponses_whenRecord_thenDoNotEject() {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(CatNotFoundException.class, () -> endpoints.record(0, () -> {
+                throw new CatNotFoundException();
+            }));
+        }
+
+        assertFalse(endpoints.ejected(0));
+    }
+
+    @Test
+    void givenRejectedRequestsAndPoolExhaustion_whenRecord_thenDoNotEject() {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(CatRequestRejectedException.class, () -> endpoints.record(0, () -> {
+                throw new CatRequestRejectedException();
+            }));
+            assertThrows(CatUpstreamBusyException.class, () -> endpoints.record(0, () -> {
+                throw new CatUpstreamBusyException();
+            }));
+        }
+
+        assertFalse(endpoints.ejected(0));
+    }
+
+    private void call(int endpoint, long latencyMillis) {
+        endpoints.record(endpoint, () -> clock.addAndGet(Duration.ofMillis(latencyMillis).toNanos()));
+    }
+
+    private void fail(int endpoint) {
+        assertThrows(CatUnknownErrorException.class, () -> endpoints.record(endpoint, () -> {
+            throw new CatUnknownErrorException();
+        }));
+    }
+}
@@ -0,0 +1,57 @@
+package com.jvnyor.demorestclient.services;
+
+import com.jvnyor.demorestclient.services.exceptions.CatNotFoundException;
+import com.jvnyor.demorestclient.services.exceptions.CatUnknownErrorException;
+import com.jvnyor.demorestclient.services.exceptions.CatUpstreamBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UpstreamMetrics upstreamMetrics;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.upstreamMetrics = new UpstreamMetrics(meterRegistry);
+    }
+
+    @Test
+    void givenSuccessfulCall_whenRecord_thenSuccessTimerIsIncremented() {
+        assertEquals("Smith", upstreamMetrics.record("get", () -> "Smith"));
+
+        assertEquals(1, count("get", "success"));
+    }
+
+    @Test
+    void givenFailingCalls_whenRecord_thenOutcomeIsTaggedByException() {
+        assertThrows(CatNotFoundException.class, () -> upstreamMetrics.record("get", () -> {
+            throw new CatNotFoundException();
+        }));
+        assertThrows(CatUpstreamBusyException.class, () -> upstreamMetrics.record("update", () -> {
+            throw new CatUpstreamBusyException();
+        }));
+        assertThrows(CatUnknownErrorException.class, () -> upstreamMetrics.record("update", () -> {
+            throw new CatUnknownErrorException();
+        }));
+
+        assertAll(
+                () -> assertEquals(1, count("get", "not_found")),
+                () -> assertEquals(1, count("update", "rejected")),
+                () -> assertEquals(1, count("update", "error"))
+        );
+    }
+
+    private long count(String operation, String outcome) {
+        return meterRegistry.get(UpstreamMetrics.REQUESTS_METRIC)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+}
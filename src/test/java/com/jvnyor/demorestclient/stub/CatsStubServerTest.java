@@ -0,0 +1,93 @@
+package com.jvnyor.demorestclient.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jvnyor.demorestclient.dtos.CatRequestDTO;
+import com.jvnyor.demorestclient.dtos.CatResponseDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatsStubServerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private CatsStubServer server;
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        client.close();
+    }
+
+    @Test
+    void givenStubServer_whenCrudRequests_thenBehaveLikeTheCatsApi() throws Exception {
+        server = new CatsStubServer(0, Duration.ZERO, Duration.ZERO, 0.0, 0.0, objectMapper);
+
+        var created = send("POST", "/cats", objectMapper.writeValueAsString(new CatRequestDTO("Smith", "Black", 6.0)));
+        var cat = objectMapper.readValue(created.body(), CatResponseDTO.class);
+        var updated = send("PUT", "/cats/" + cat._id(), objectMapper.writeValueAsString(new CatRequestDTO("Smith", "Black", 7.0)));
+        var fetched = send("GET", "/cats/" + cat._id(), null);
+        var deleted = send("DELETE", "/cats/" + cat._id(), null);
+        var missing = send("GET", "/cats/" + cat._id(), null);
+
+        assertAll(
+                () -> assertEquals(201, created.statusCode()),
+                () -> assertEquals(24, cat._id().length()),
+                () -> assertEquals(200, updated.statusCode()),
+                () -> assertEquals(7.0, objectMapper.readValue(fetched.body(), CatResponseDTO.class).weight()),
+                () -> assertEquals(200, deleted.statusCode()),
+                () -> assertEquals(404, missing.statusCode())
+        );
+    }
+
+    @Test
+    void givenSeededCats_whenListCats_thenReturnEveryCat() throws Exception {
+        server = new CatsStubServer(0, Duration.ZERO, Duration.ZERO, 0.0, 0.0, objectMapper);
+        server.seed(25);
+
+        var listed = send("GET", "/cats", null);
+
+        assertEquals(25, objectMapper.readValue(listed.body(), CatResponseDTO[].class).length);
+    }
+
+    @Test
+    void givenInjectedFailures_whenGetCat_thenRespondWithInjectedStatus() throws Exception {
+        server = new CatsStubServer(0, Duration.ZERO, Duration.ZERO, 0.0, 1.0, objectMapper);
+        var id = server.seed(1).getFirst();
+
+        assertEquals(404, send("GET", "/cats/" + id, null).statusCode());
+        server.close();
+
+        server = new CatsStubServer(0, Duration.ZERO, Duration.ZERO, 1.0, 0.0, objectMapper);
+        assertEquals(500, send("GET", "/cats", null).statusCode());
+    }
+
+    @Test
+    void givenLatency_whenGetCat_thenResponseIsDelayed() throws Exception {
+        server = new CatsStubServer(0, Duration.ofMillis(50), Duration.ofMillis(50), 0.0, 0.0, objectMapper);
+        var id = server.seed(1).getFirst();
+
+        var start = System.nanoTime();
+        send("GET", "/cats/" + id, null);
+
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(45).toNanos());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create(server.baseUrl() + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}